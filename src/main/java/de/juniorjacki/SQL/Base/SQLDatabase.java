@@ -21,6 +21,7 @@ public interface SQLDatabase {
             for (Tables table : Tables.values()) {
                 try {
                     Table<?,?> tableClass = table.instance;
+                    tableClass.metadata(); // Render Statements before the first Query
                     con.createStatement().execute(SQLQueryBuilder.generateCreateTableQuery(tableClass.tableName(),tableClass.tableProperties()));
                     if (isTableEmpty(con, tableClass.tableName())) tableClass.onCreation();
                 } catch (Exception exception) {
@@ -1,20 +1,87 @@
 package de.juniorjacki.SQL.Base;
 
-import java.lang.reflect.Field;
-import java.util.HashMap;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
-
-import static de.juniorjacki.SQL.Type.Record.populateRecord;
+import java.util.stream.IntStream;
 
 
 public class SQLInputFilter {
     private static final List<String> blackList = List.of(" select", " insert", " update", " delete", " drop", " alter", " create", " exec", " union", " join");
 
+    /*
+     * Automaton matching all blacklisted words at once (Aho-Corasick). ASCII letters are folded to lower case
+     * through the symbol table, characters not used by any word share symbol 0, which leads back to the root.
+     */
+    private static final byte[] symbols = new byte[128];
+    private static final int[][] transitions;
+    private static final int[] matchLengths;
+
+    private static volatile boolean filterBoundParameters = true;
+
+    static {
+        int symbolCount = 1;
+        int maxStates = 1;
+        for (String word : blackList) {
+            maxStates += word.length();
+            for (char c : word.toCharArray()) {
+                if (symbols[c] == 0) {
+                    symbols[Character.toLowerCase(c)] = (byte) symbolCount;
+                    symbols[Character.toUpperCase(c)] = (byte) symbolCount;
+                    symbolCount++;
+                }
+            }
+        }
+        int[][] next = new int[maxStates][symbolCount];
+        int[] lengths = new int[maxStates];
+        for (int[] row : next) Arrays.fill(row, -1);
+        int states = 1;
+        for (String word : blackList) {
+            int state = 0;
+            for (char c : word.toCharArray()) {
+                int symbol = symbols[c];
+                if (next[state][symbol] == -1) next[state][symbol] = states++;
+                state = next[state][symbol];
+            }
+            lengths[state] = Math.max(lengths[state], word.length());
+        }
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            if (next[0][symbol] == -1) {
+                next[0][symbol] = 0;
+            } else {
+                queue.add(next[0][symbol]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            lengths[state] = Math.max(lengths[state], lengths[fail[state]]);
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int child = next[state][symbol];
+                if (child == -1) {
+                    next[state][symbol] = next[fail[state]][symbol];
+                } else {
+                    fail[child] = next[fail[state]][symbol];
+                    queue.add(child);
+                }
+            }
+        }
+        transitions = Arrays.copyOf(next, states);
+        matchLengths = Arrays.copyOf(lengths, states);
+    }
+
     // Filters Bad Keywords
     public static <T> T filterExternalInput(T input) throws Exception {
         return switch (input) {
+            case null -> null;
             case String text -> (T) filterString(text);
             case Record record -> (T) filterRecord(record);
             case List<?> list -> (T) filterList(list);
@@ -22,45 +89,132 @@ public class SQLInputFilter {
         };
     }
 
+    /**
+     * Filters a value that is bound as statement parameter.
+     * Binding already keeps values out of the SQL text, so this filter can be disabled with {@link #setFilterBoundParameters(boolean)}.
+     */
+    public static <T> T filterBoundInput(T input) throws Exception {
+        return filterBoundParameters ? filterExternalInput(input) : input;
+    }
+
+    /**
+     * Enables or disables filtering of values bound as statement parameters. Values inlined into SQL are always filtered.
+     */
+    public static void setFilterBoundParameters(boolean enabled) {
+        filterBoundParameters = enabled;
+    }
+
+    public static boolean isFilterBoundParameters() {
+        return filterBoundParameters;
+    }
+
+    /**
+     * Removes all blacklisted words, ignoring case, including words that only appear once others were removed.
+     * Scans the input once and returns the same instance if nothing matches.
+     */
     private static String filterString(String input) {
-        String lowerText = input.toLowerCase();
-        boolean isModified = false;
-        StringBuilder filteredText = new StringBuilder(input);
-        for (String blackWord : blackList) {
-            int index;
-            while ((index = lowerText.indexOf(blackWord)) != -1) {
-                filteredText.replace(index, index + blackWord.length(), "");
-                lowerText = filteredText.toString().toLowerCase();
-                isModified = true;
+        int state = 0;
+        for (int i = 0; i < input.length(); i++) {
+            state = transitions[state][symbol(input.charAt(i))];
+            if (matchLengths[state] > 0) {
+                return removeMatches(input);
             }
         }
-        return isModified ? filteredText.toString() : input;
+        return input;
+    }
+
+    private static String removeMatches(String input) {
+        char[] output = new char[input.length()];
+        int[] states = new int[input.length() + 1];
+        int length = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            output[length] = c;
+            int state = transitions[states[length]][symbol(c)];
+            states[++length] = state;
+            length -= matchLengths[state]; // Drops the word, matching continues in the state before it
+        }
+        return new String(output, 0, length);
+    }
+
+    private static int symbol(char c) {
+        if (c < 128) return symbols[c];
+        char lower = Character.toLowerCase(c);
+        return lower < 128 ? symbols[lower] : 0;
     }
 
+    /**
+     * Filters the String components of a record through the plan of its class.
+     * The record is only rebuilt if a value changed, records without String components are returned as they are.
+     */
+    @SuppressWarnings("unchecked")
     private static <R extends Record> R filterRecord(R record) throws Exception {
-        Class<?> recordClass = record.getClass();
-        Map<String, Object> fieldMap = new HashMap<>();
-        boolean isModified = false;
-        for (Field field : recordClass.getDeclaredFields()) {
-            field.setAccessible(true);
-            Object value = field.get(record);
-            if (value instanceof String) {
-                String filteredValue = filterString((String) value);
-                if (!filteredValue.equals(value)) {
-                    isModified = true;
+        FilterPlan plan = filterPlans.get(record.getClass());
+        if (plan.stringComponents().length == 0) return record;
+        try {
+            Object[] values = null;
+            for (int component : plan.stringComponents()) {
+                String value = (String) (Object) plan.accessors()[component].invokeExact((Object) record); // Call site must match the (Object)Object handle
+                if (value == null) continue;
+                String filteredValue = filterString(value);
+                if (filteredValue != value) {
+                    if (values == null) values = plan.values(record);
+                    values[component] = filteredValue;
                 }
-                fieldMap.put(field.getName(), filteredValue);
-            } else {
-                fieldMap.put(field.getName(), value);
             }
+            return values == null ? record : (R) (Object) plan.constructor().invokeExact(values);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to filter " + record.getClass().getName(), e);
         }
-        if (isModified) {
-            return (R) populateRecord(recordClass, fieldMap);
-        } else {
-            return record;
+    }
+
+    /**
+     * Accessors and canonical constructor of a record class, and the indices of its String components
+     */
+    private record FilterPlan(MethodHandle[] accessors, int[] stringComponents, MethodHandle constructor) {
+        private static final FilterPlan NONE = new FilterPlan(new MethodHandle[0], new int[0], null);
+
+        private Object[] values(Record record) throws Throwable {
+            Object[] values = new Object[accessors.length];
+            for (int i = 0; i < accessors.length; i++) {
+                values[i] = accessors[i].invokeExact((Object) record);
+            }
+            return values;
         }
     }
 
+    private static final ClassValue<FilterPlan> filterPlans = new ClassValue<>() {
+        @Override
+        protected FilterPlan computeValue(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            int[] stringComponents = IntStream.range(0, components.length)
+                    .filter(i -> components[i].getType() == String.class)
+                    .toArray();
+            if (stringComponents.length == 0) return FilterPlan.NONE;
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle[] accessors = new MethodHandle[components.length];
+                Class<?>[] componentTypes = new Class<?>[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    Method accessor = components[i].getAccessor();
+                    accessor.setAccessible(true);
+                    accessors[i] = lookup.unreflect(accessor).asType(MethodType.methodType(Object.class, Object.class));
+                    componentTypes[i] = components[i].getType();
+                }
+                Constructor<?> canonical = type.getDeclaredConstructor(componentTypes);
+                canonical.setAccessible(true);
+                MethodHandle constructor = lookup.unreflectConstructor(canonical)
+                        .asSpreader(Object[].class, components.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+                return new FilterPlan(accessors, stringComponents, constructor);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new IllegalArgumentException("Could not access record " + type.getName(), e);
+            }
+        }
+    };
+
     private static <T> List<T> filterList(List<T> list) {
         return list.stream()
                 .map(item -> {
@@ -0,0 +1,71 @@
+package de.juniorjacki.SQL.Connection;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker guarding access to the database.
+ * CLOSED lets every request through, OPEN rejects requests immediately while the database is down.
+ * Callers are never used as trial requests, the reconnect supervisor is the only probe and closes the breaker
+ * once it opened a valid connection.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN
+    }
+
+    private volatile State state = State.CLOSED;
+    private volatile long stateChangedAt = System.currentTimeMillis();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final LongAdder trips = new LongAdder();
+
+    /**
+     * @return true if a request may use the database, false if it should fail fast
+     */
+    public boolean allowRequest() {
+        if (state == State.CLOSED) return true;
+        rejectedRequests.increment();
+        return false;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return Time in milliseconds at which the current state was entered
+     */
+    public long getStateChangedAt() {
+        return stateChangedAt;
+    }
+
+    /**
+     * @return Number of requests rejected while the breaker was not closed
+     */
+    public long getRejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    /**
+     * @return Number of times the breaker opened after being closed
+     */
+    public long getTrips() {
+        return trips.sum();
+    }
+
+    synchronized void open() {
+        if (state == State.CLOSED) trips.increment();
+        transition(State.OPEN);
+    }
+
+    synchronized void close() {
+        transition(State.CLOSED);
+    }
+
+    private void transition(State newState) {
+        if (state == newState) return;
+        state = newState;
+        stateChangedAt = System.currentTimeMillis();
+    }
+}
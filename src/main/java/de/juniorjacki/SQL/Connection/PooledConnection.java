@@ -0,0 +1,113 @@
+package de.juniorjacki.SQL.Connection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A physical database connection owned by a {@link SQLConnectionPool}.
+ * Borrowed instances must be closed to hand the connection back to the pool;
+ * the underlying {@link Connection} stays open and is reused by later borrowers.
+ */
+public class PooledConnection implements AutoCloseable {
+    private final SQLConnectionPool pool;
+    private final Connection connection;
+    private final long createdAt;
+    private volatile long lastUsed;
+    private final AtomicBoolean borrowed = new AtomicBoolean(false);
+    private final StatementCache statementCache;
+    private final PooledConnection owner;
+
+    PooledConnection(SQLConnectionPool pool, Connection connection, StatementCache statementCache) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statementCache = statementCache;
+        this.createdAt = System.nanoTime();
+        this.lastUsed = createdAt;
+        this.owner = null;
+    }
+
+    private PooledConnection(PooledConnection owner) {
+        this.pool = owner.pool;
+        this.connection = owner.connection;
+        this.statementCache = owner.statementCache;
+        this.createdAt = owner.createdAt;
+        this.lastUsed = createdAt;
+        this.owner = owner;
+    }
+
+    /**
+     * @return A handle on the same connection whose close() does nothing, the connection stays with this borrower
+     */
+    PooledConnection share() {
+        return new PooledConnection(owner != null ? owner : this);
+    }
+
+    /**
+     * @return The underlying JDBC connection. Do not close it directly, close this handle instead
+     */
+    public Connection get() {
+        return connection;
+    }
+
+    /**
+     * @return The pool this connection belongs to
+     */
+    public SQLConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Prepares a statement through the statement cache of this connection.
+     * Close the returned statement as usual, closing hands it back to the cache instead of closing it.
+     * @param sql The SQL query
+     * @return The prepared statement
+     */
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        if (statementCache == null) return connection.prepareStatement(sql);
+        return statementCache.prepare(sql);
+    }
+
+    /**
+     * @return Number of statements currently cached for this connection
+     */
+    public int getCachedStatements() {
+        return statementCache == null ? 0 : statementCache.size();
+    }
+
+    void clearStatements() {
+        if (statementCache != null) statementCache.clear();
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    void touch() {
+        lastUsed = System.nanoTime();
+    }
+
+    boolean markBorrowed() {
+        return borrowed.compareAndSet(false, true);
+    }
+
+    boolean markReturned() {
+        if (!borrowed.compareAndSet(true, false)) return false;
+        lastUsed = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Returns the connection to its pool. Closing a shared handle does nothing.
+     */
+    @Override
+    public void close() {
+        if (owner != null) return;
+        pool.release(this);
+    }
+}
@@ -0,0 +1,221 @@
+package de.juniorjacki.SQL.Connection;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routes reads to the Connection Pools of read replicas.
+ * Every read borrows from the healthy replica with the fewest borrowed connections. Replicas whose pool is unhealthy,
+ * or whose replication lag exceeds {@link Config#maxLag()}, are left out of the rotation until they recover.
+ * If no replica is available the caller falls back to the primary.
+ */
+public final class ReplicaRouter {
+
+    /**
+     * Replica settings
+     * @param maxLag Replication lag after which a replica is left out of the rotation, null to not check the lag
+     * @param lagCheckInterval Interval in which the lag of every replica is read
+     */
+    public record Config(Duration maxLag, Duration lagCheckInterval) {
+        public Config {
+            if (maxLag != null && maxLag.isNegative()) {
+                throw new IllegalArgumentException("Invalid replication lag: " + maxLag);
+            }
+            if (lagCheckInterval == null || lagCheckInterval.toMillis() < 1) {
+                throw new IllegalArgumentException("Lag check interval must be positive");
+            }
+        }
+
+        public static Config defaults() {
+            return new Config(null, Duration.ofSeconds(5));
+        }
+    }
+
+    private static final class Replica {
+        private final SQLConnectionPool pool;
+        private volatile long lagSeconds = 0;
+        private volatile boolean lagging = false;
+
+        private Replica(SQLConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        private boolean available() {
+            return !lagging && pool.isHealthy();
+        }
+    }
+
+    private final Config config;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ScheduledExecutorService lagMonitor;
+    private final AtomicInteger rotation = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    /**
+     * @param pools Connection Pools of the replicas
+     * @param config Lag threshold and check interval
+     */
+    public ReplicaRouter(List<SQLConnectionPool> pools, Config config) {
+        if (pools == null || config == null) {
+            throw new IllegalArgumentException("Pools and config cannot be null");
+        }
+        this.config = config;
+        for (SQLConnectionPool pool : pools) {
+            replicas.add(new Replica(pool));
+        }
+        if (config.maxLag() != null && !replicas.isEmpty()) {
+            lagMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ReplicaRouter-Lag");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = config.lagCheckInterval().toMillis();
+            lagMonitor.scheduleWithFixedDelay(this::checkLag, 0, interval, TimeUnit.MILLISECONDS);
+        } else {
+            lagMonitor = null;
+        }
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Borrows a connection from the available replica with the fewest borrowed connections.
+     * A replica failing to hand out a connection is skipped.
+     * @return Connection to a replica, or null if no replica is available and the read has to go to the primary
+     */
+    public PooledConnection borrow() {
+        List<Replica> candidates = new ArrayList<>(replicas.size());
+        int start = replicas.isEmpty() ? 0 : Math.floorMod(rotation.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size()); // Rotate the order, so ties are spread
+            if (replica.available()) candidates.add(replica);
+        }
+        candidates.sort(Comparator.comparingInt(replica -> replica.pool.getActiveConnections()));
+        for (Replica replica : candidates) {
+            try {
+                PooledConnection connection = replica.pool.borrow();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.pool.reportFailure(e);
+            }
+        }
+        primaryReads.increment();
+        return null;
+    }
+
+    /**
+     * Reports a failed read to all replica pools, each validates its connections with the next heartbeat
+     */
+    public void reportFailure(Throwable e) {
+        for (Replica replica : replicas) {
+            replica.pool.reportFailure(e);
+        }
+    }
+
+    private void checkLag() {
+        for (Replica replica : replicas) {
+            try (PooledConnection connection = replica.pool.borrow();
+                 Statement statement = connection.get().createStatement()) {
+                long lag = readLag(statement);
+                replica.lagSeconds = lag;
+                replica.lagging = lag < 0 || lag > config.maxLag().toSeconds();
+            } catch (SQLException e) {
+                replica.pool.reportFailure(e);
+                System.out.println("Replication lag check failed: " + e.getMessage());
+            } catch (RuntimeException e) {
+                System.out.println("Replication lag check failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return Seconds the replica is behind its source, 0 if it is not replicating, -1 if replication is stopped
+     */
+    private static long readLag(Statement statement) throws SQLException {
+        try (ResultSet rs = replicaStatus(statement)) {
+            if (!rs.next()) return 0;
+            ResultSetMetaData metaData = rs.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                String label = metaData.getColumnLabel(i);
+                if (label.equalsIgnoreCase("Seconds_Behind_Source") || label.equalsIgnoreCase("Seconds_Behind_Master")) {
+                    long lag = rs.getLong(i);
+                    return rs.wasNull() ? -1 : lag;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static ResultSet replicaStatus(Statement statement) throws SQLException {
+        try {
+            return statement.executeQuery("SHOW REPLICA STATUS");
+        } catch (SQLSyntaxErrorException e) {
+            return statement.executeQuery("SHOW SLAVE STATUS"); // Servers before MySQL 8.0.22
+        }
+    }
+
+    /**
+     * Closes the Connection Pools of all replicas
+     */
+    public void close() {
+        if (lagMonitor != null) lagMonitor.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    /**
+     * @return Number of replicas currently in the rotation
+     */
+    public int getAvailableReplicaCount() {
+        return (int) replicas.stream().filter(Replica::available).count();
+    }
+
+    /**
+     * @return Last replication lag read from the replica in seconds, -1 if replication is stopped
+     */
+    public long getLagSeconds(int replica) {
+        return replicas.get(replica).lagSeconds;
+    }
+
+    /**
+     * @return Connection Pool of the replica
+     */
+    public SQLConnectionPool getPool(int replica) {
+        return replicas.get(replica).pool;
+    }
+
+    /**
+     * @return Number of reads served by a replica
+     */
+    public long getReplicaReadCount() {
+        return replicaReads.sum();
+    }
+
+    /**
+     * @return Number of reads that fell back to the primary because no replica was available
+     */
+    public long getPrimaryFallbackCount() {
+        return primaryReads.sum();
+    }
+}
@@ -3,21 +3,55 @@ package de.juniorjacki.SQL.Connection;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.concurrent.ExecutorService;
+import java.time.Duration;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 public class SQLConnection {
 
-    private static final ExecutorService executorService = Executors.newSingleThreadExecutor();
-    private static final AtomicBoolean running = new AtomicBoolean(true);
-    private static Future<?> connectionTask;
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final AtomicBoolean reconnecting = new AtomicBoolean(false);
+    private volatile ReconnectPolicy reconnectPolicy = ReconnectPolicy.defaults();
+    private volatile ScheduledExecutorService reconnectExecutor;
 
     public record dbKey(String host, int port, String dataBase, String username, String passwd) {
     };
 
+    /**
+     * Exponential backoff used between reconnect attempts
+     * @param initialDelay Delay before the first attempt
+     * @param maxDelay Upper bound for the delay between attempts
+     * @param multiplier Factor the delay grows by after every failed attempt
+     * @param jitter Fraction (0 - 1) of the delay that is randomized
+     */
+    public record ReconnectPolicy(Duration initialDelay, Duration maxDelay, double multiplier, double jitter) {
+        public ReconnectPolicy {
+            if (initialDelay == null || maxDelay == null || initialDelay.isNegative() || maxDelay.compareTo(initialDelay) < 0) {
+                throw new IllegalArgumentException("Invalid reconnect delays: " + initialDelay + " - " + maxDelay);
+            }
+            if (multiplier < 1 || jitter < 0 || jitter > 1) {
+                throw new IllegalArgumentException("Invalid reconnect multiplier or jitter: " + multiplier + ", " + jitter);
+            }
+        }
+
+        public static ReconnectPolicy defaults() {
+            return new ReconnectPolicy(Duration.ofMillis(250), Duration.ofSeconds(30), 2.0, 0.5);
+        }
+
+        /**
+         * @param attempt Number of failed attempts so far
+         * @return Delay in milliseconds before the next attempt
+         */
+        public long delayMillis(int attempt) {
+            double delay = Math.min(maxDelay.toMillis(), initialDelay.toMillis() * Math.pow(multiplier, attempt));
+            return (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+        }
+    }
+
     protected boolean testKey(dbKey dbKey) throws SQLException {
         return DriverManager.getConnection("jdbc:mysql://" + dbKey.host+":"+ dbKey.port + "/" + dbKey.dataBase, dbKey.username, dbKey.passwd).isValid(5000);
     }
@@ -38,44 +72,82 @@ public class SQLConnection {
         return false;
     }
 
-
-    protected void getNewConnectionAsync(dbKey key,Consumer<Connection> connectionUpdater) {
-        connectionTask = executorService.submit(() -> {
-            while (running.get()) {
-                try {
-                    Connection conn = getNewConnection(key);
-                    if (conn != null && conn.isValid(2)) {
-                        synchronized (SQLConnection.class) {
-                            connectionUpdater.accept(conn);
-                            running.set(false);
-                            System.out.println("Database reconnected successfully.");
-                        }
-                    }
-                } catch (SQLException e) {
-                    System.out.println("Failed to reconnect to the Database: " + e.getMessage());
-                }
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        });
+    /**
+     * @return Circuit breaker that rejects requests while the database is unreachable
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
     }
 
-    protected static void stopAsyncConnectionGetter () {
-        running.set(false);
-        if (connectionTask != null) {
-            connectionTask.cancel(true);
+    /**
+     * Sets the backoff used for reconnect attempts
+     */
+    public void setReconnectPolicy(ReconnectPolicy reconnectPolicy) {
+        if (reconnectPolicy == null) {
+            throw new IllegalArgumentException("Reconnect policy cannot be null");
         }
-        executorService.shutdown();
-        System.out.println("Reconnect connection attempts stopped.");
+        this.reconnectPolicy = reconnectPolicy;
     }
-}
-
-
-
 
+    /**
+     * Starts the executor reconnect attempts run on. Needs to be called before {@link #startReconnect}.
+     */
+    protected void startReconnectSupervisor() {
+        if (reconnectExecutor != null && !reconnectExecutor.isShutdown()) return;
+        reconnectExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SQLConnection-Reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+        circuitBreaker.close();
+    }
 
+    /**
+     * Opens the circuit breaker and tries to reconnect with exponential backoff until a valid connection is opened.
+     * The breaker stays open until then, these attempts are the only probe of the database.
+     * Calls while reconnect attempts are already running only keep the breaker open.
+     * @param key Database to connect to
+     * @param connectionUpdater Receives the new connection once the database is reachable again
+     */
+    protected void startReconnect(dbKey key, Consumer<Connection> connectionUpdater) {
+        circuitBreaker.open();
+        if (!reconnecting.compareAndSet(false, true)) return;
+        System.out.println("Database offline, trying to reconnect.");
+        scheduleReconnect(key, connectionUpdater, 0);
+    }
 
+    private void scheduleReconnect(dbKey key, Consumer<Connection> connectionUpdater, int attempt) {
+        ScheduledExecutorService executor = reconnectExecutor;
+        if (executor == null || executor.isShutdown()) {
+            reconnecting.set(false);
+            return;
+        }
+        executor.schedule(() -> {
+            try {
+                Connection conn = getNewConnection(key);
+                if (conn != null && conn.isValid(2)) {
+                    connectionUpdater.accept(conn);
+                    reconnecting.set(false);
+                    circuitBreaker.close();
+                    System.out.println("Database reconnected successfully.");
+                    return;
+                }
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.out.println("Failed to reconnect to the Database: " + e.getMessage());
+            }
+            circuitBreaker.open();
+            scheduleReconnect(key, connectionUpdater, attempt + 1);
+        }, reconnectPolicy.delayMillis(attempt), TimeUnit.MILLISECONDS);
+    }
 
+    protected void stopReconnectSupervisor() {
+        ScheduledExecutorService executor = reconnectExecutor;
+        reconnectExecutor = null;
+        if (executor != null) {
+            executor.shutdownNow();
+            System.out.println("Reconnect connection attempts stopped.");
+        }
+        reconnecting.set(false);
+    }
+}
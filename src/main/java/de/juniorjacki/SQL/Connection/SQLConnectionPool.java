@@ -0,0 +1,402 @@
+package de.juniorjacki.SQL.Connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of database connections.
+ * At most {@link Config#maxSize()} connections are handed out at the same time, idle connections above
+ * {@link Config#minSize()} are evicted after {@link Config#idleTimeout()} and every connection is replaced
+ * once it is older than {@link Config#maxLifetime()}.
+ * <p>
+ * Connections are not validated on every borrow. A background heartbeat checks idle connections every
+ * {@link Config#heartbeatInterval()} and keeps a cached health state. Only after a connection error,
+ * or while the pool is unhealthy, are borrowed connections validated before they are handed out.
+ * Once the heartbeat or a failed connect confirms the database is down, the outage listener is notified.
+ */
+public final class SQLConnectionPool {
+
+    /**
+     * Pool settings
+     * @param minSize Connections kept open even if idle
+     * @param maxSize Maximum number of connections handed out at the same time
+     * @param idleTimeout Time after which an idle connection above minSize gets closed
+     * @param maxLifetime Time after which a connection gets replaced
+     * @param borrowTimeout Time a caller waits for a free connection before failing
+     * @param heartbeatInterval Interval in which idle connections are validated in the background
+     * @param statementCacheSize Prepared statements cached per connection, 0 disables the cache
+     */
+    public record Config(int minSize, int maxSize, Duration idleTimeout, Duration maxLifetime, Duration borrowTimeout, Duration heartbeatInterval, int statementCacheSize) {
+        public Config {
+            if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+                throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+            }
+            if (idleTimeout == null || maxLifetime == null || borrowTimeout == null || heartbeatInterval == null) {
+                throw new IllegalArgumentException("Pool timeouts cannot be null");
+            }
+            if (heartbeatInterval.toMillis() < 1) {
+                throw new IllegalArgumentException("Heartbeat interval must be positive");
+            }
+            if (statementCacheSize < 0) {
+                throw new IllegalArgumentException("Invalid statement cache size: " + statementCacheSize);
+            }
+        }
+
+        public Config(int minSize, int maxSize, Duration idleTimeout, Duration maxLifetime, Duration borrowTimeout, Duration heartbeatInterval) {
+            this(minSize, maxSize, idleTimeout, maxLifetime, borrowTimeout, heartbeatInterval, 256);
+        }
+
+        public Config(int minSize, int maxSize, Duration idleTimeout, Duration maxLifetime, Duration borrowTimeout) {
+            this(minSize, maxSize, idleTimeout, maxLifetime, borrowTimeout, Duration.ofSeconds(10));
+        }
+
+        /**
+         * @return Default settings, sized by the available processors
+         */
+        public static Config defaults() {
+            return new Config(1, Math.max(4, Runtime.getRuntime().availableProcessors() * 2),
+                    Duration.ofMinutes(10), Duration.ofMinutes(30), Duration.ofSeconds(30));
+        }
+    }
+
+    /**
+     * Creates new physical connections for the pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final ConnectionFactory factory;
+    private final Config config;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private final AtomicBoolean healthy = new AtomicBoolean(true);
+    private volatile Runnable outageListener = () -> {};
+    private volatile boolean closed = false;
+    private final StatementCache.Stats statementStats = new StatementCache.Stats();
+
+    public SQLConnectionPool(ConnectionFactory factory, Config config) {
+        if (factory == null || config == null) {
+            throw new IllegalArgumentException("Factory and config cannot be null");
+        }
+        this.factory = factory;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SQLConnectionPool-Housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.clamp(Math.min(config.idleTimeout().toMillis(), config.maxLifetime().toMillis()) / 2, 1000L, 30000L);
+        housekeeper.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+        long heartbeat = config.heartbeatInterval().toMillis();
+        housekeeper.scheduleWithFixedDelay(() -> heartbeat(false), heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens connections until minSize is reached.
+     * @throws SQLException if the first connection cannot be opened
+     */
+    public void fill() throws SQLException {
+        while (!closed && total.get() < config.minSize()) {
+            if (!permits.tryAcquire()) return;
+            try {
+                idle.offerLast(create());
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Sets the listener notified when the database is found unreachable
+     */
+    public void setOutageListener(Runnable outageListener) {
+        this.outageListener = outageListener == null ? () -> {} : outageListener;
+    }
+
+    /**
+     * Replaces all idle connections after an outage with a freshly opened connection and marks the pool healthy.
+     * @param connection Connection opened after the database became reachable again
+     */
+    public void recover(Connection connection) {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+        if (closed) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {}
+            return;
+        }
+        total.incrementAndGet();
+        idle.offerFirst(wrap(connection));
+        healthy.set(true);
+    }
+
+    /**
+     * @return Cached health state of the pool, updated by the heartbeat and by reported connection errors
+     */
+    public boolean isHealthy() {
+        return healthy.get();
+    }
+
+    /**
+     * Reports a failed statement. Connection errors mark the pool unhealthy and trigger an immediate
+     * heartbeat, until then borrowed connections are validated before they are handed out.
+     * @param e The error thrown while using a borrowed connection
+     */
+    public void reportFailure(Throwable e) {
+        if (closed || !isConnectionError(e)) return;
+        if (healthy.compareAndSet(true, false)) {
+            housekeeper.execute(() -> heartbeat(true));
+        }
+    }
+
+    /**
+     * @return true if the error or one of its causes signals a broken connection
+     */
+    public static boolean isConnectionError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLRecoverableException
+                    || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith("08")) { // SQLState class 08: connection exception
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Borrows a connection, waiting up to borrowTimeout for one to become available.
+     * The returned connection must be closed to hand it back to the pool.
+     * @return A valid connection
+     * @throws SQLException if the pool is closed, the timeout expires or no connection can be opened
+     */
+    public PooledConnection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        try {
+            if (!permits.tryAcquire(config.borrowTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + config.borrowTimeout().toMillis() + "ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isExpired(pooled, System.nanoTime()) || (!healthy.get() && !revalidate(pooled)) || !pooled.markBorrowed()) {
+                    discard(pooled);
+                    continue;
+                }
+                return pooled;
+            }
+            try {
+                pooled = create();
+            } catch (SQLException e) {
+                healthy.set(false);
+                outageListener.run();
+                throw e;
+            }
+            healthy.set(true);
+            pooled.markBorrowed();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a borrowed connection back. Called by {@link PooledConnection#close()}.
+     */
+    void release(PooledConnection pooled) {
+        if (!pooled.markReturned()) return; // Already returned
+        try {
+            if (closed || isExpired(pooled, System.nanoTime()) || pooled.get().isClosed()) {
+                discard(pooled);
+            } else {
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the pool. Borrowed connections get closed when returned.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    public int getTotalConnections() {
+        return total.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getActiveConnections() {
+        return config.maxSize() - permits.availablePermits();
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * @return Number of statements served from the statement caches of the connections
+     */
+    public long getStatementCacheHits() {
+        return statementStats.hits.sum();
+    }
+
+    /**
+     * @return Number of statements that had to be prepared because they were not cached
+     */
+    public long getStatementCacheMisses() {
+        return statementStats.misses.sum();
+    }
+
+    /**
+     * @return Number of statements closed because a statement cache was full
+     */
+    public long getStatementCacheEvictions() {
+        return statementStats.evictions.sum();
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection connection = factory.create();
+        if (connection == null) throw new SQLException("Could not open a database connection");
+        total.incrementAndGet();
+        return wrap(connection);
+    }
+
+    private PooledConnection wrap(Connection connection) {
+        return new PooledConnection(this, connection,
+                config.statementCacheSize() > 0 ? new StatementCache(connection, config.statementCacheSize(), statementStats) : null);
+    }
+
+    private void discard(PooledConnection pooled) {
+        total.decrementAndGet();
+        try {
+            pooled.clearStatements();
+            pooled.get().close();
+        } catch (SQLException e) {
+            System.out.println("Failed to close pooled connection: " + e.getMessage());
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return now - pooled.getCreatedAt() > config.maxLifetime().toNanos();
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.get().isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean revalidate(PooledConnection pooled) {
+        if (!isValid(pooled)) return false;
+        healthy.set(true);
+        return true;
+    }
+
+    /**
+     * Validates idle connections that were not used within the heartbeat interval and updates the health state.
+     * If the pool is unhealthy and no idle connection can be checked, a new connection is opened as probe.
+     * @param all Validate every idle connection, regardless of when it was last used
+     */
+    private void heartbeat(boolean all) {
+        if (closed) return;
+        try {
+            long now = System.nanoTime();
+            long interval = config.heartbeatInterval().toNanos();
+            boolean checked = false;
+            boolean alive = false;
+            for (PooledConnection pooled : new ArrayList<>(idle)) {
+                if (!all && now - pooled.getLastUsed() < interval) continue;
+                if (!idle.remove(pooled)) continue; // Borrowed in the meantime
+                checked = true;
+                if (isValid(pooled)) {
+                    alive = true;
+                    pooled.touch();
+                    idle.offerLast(pooled);
+                } else {
+                    discard(pooled);
+                }
+            }
+            if (!checked && !healthy.get() && permits.tryAcquire()) {
+                checked = true;
+                try {
+                    idle.offerLast(create());
+                    alive = true;
+                } catch (SQLException e) {
+                    System.out.println("Database heartbeat failed: " + e.getMessage());
+                } finally {
+                    permits.release();
+                }
+            }
+            if (checked) {
+                healthy.set(alive);
+                if (!alive) outageListener.run();
+            }
+        } catch (Exception e) {
+            System.out.println("Database heartbeat failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts expired and surplus idle connections, then tops the pool up to minSize.
+     */
+    private void maintain() {
+        try {
+            long now = System.nanoTime();
+            for (PooledConnection pooled : idle) {
+                boolean idleTooLong = total.get() > config.minSize() && now - pooled.getLastUsed() > config.idleTimeout().toNanos();
+                if ((idleTooLong || isExpired(pooled, now)) && idle.remove(pooled)) {
+                    discard(pooled);
+                }
+            }
+            fill();
+        } catch (Exception e) {
+            System.out.println("Connection pool maintenance failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package de.juniorjacki.SQL.Connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements of one connection, keyed by SQL text.
+ * Statements are handed out as proxies whose close() resets the statement and puts it back into the cache,
+ * so callers keep closing statements as usual. A statement is removed from the cache while it is in use,
+ * nested uses of the same SQL on one connection therefore get their own statement.
+ * Like the connection itself, a cache is only used by the thread that borrowed the connection.
+ */
+class StatementCache {
+
+    private final Connection connection;
+    private final int maxSize;
+    private final Stats stats;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    /**
+     * Hit, miss and eviction counters shared by all caches of a pool
+     */
+    static final class Stats {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+    }
+
+    StatementCache(Connection connection, int maxSize, Stats stats) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.stats = stats;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return A cached statement for the SQL, or a newly prepared one on a miss
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.remove(sql);
+        if (statement != null && !statement.isClosed()) {
+            stats.hits.increment();
+        } else {
+            stats.misses.increment();
+            statement = connection.prepareStatement(sql);
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, new Handle(sql, statement));
+    }
+
+    private void giveBack(String sql, PreparedStatement statement) throws SQLException {
+        if (statement.isClosed()) return;
+        if (connection.isClosed()) {
+            statement.close();
+            return;
+        }
+        statement.clearParameters();
+        statement.clearBatch();
+        PreparedStatement previous = statements.put(sql, statement);
+        if (previous != null && previous != statement) {
+            previous.close(); // Same SQL was used nested, keep one statement
+        }
+        Iterator<Map.Entry<String, PreparedStatement>> eldest = statements.entrySet().iterator();
+        while (statements.size() > maxSize && eldest.hasNext()) {
+            PreparedStatement evicted = eldest.next().getValue();
+            eldest.remove();
+            stats.evictions.increment();
+            evicted.close();
+        }
+    }
+
+    /**
+     * Closes all cached statements
+     */
+    void clear() {
+        for (PreparedStatement statement : statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+            }
+        }
+        statements.clear();
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final String sql;
+        private final PreparedStatement statement;
+        private boolean returned = false;
+
+        private Handle(String sql, PreparedStatement statement) {
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        giveBack(sql, statement);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || statement.isClosed();
+                }
+                case "unwrap" -> {
+                    if (((Class<?>) args[0]).isInstance(statement)) return statement;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                }
+            }
+            if (returned) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
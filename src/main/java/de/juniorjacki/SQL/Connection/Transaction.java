@@ -0,0 +1,170 @@
+package de.juniorjacki.SQL.Connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A database transaction bound to the thread that started it.
+ * While it is active, every connection borrowed on that thread is a shared handle on the connection of the
+ * transaction, so all DatabaseInterface and QueryBuilder calls of the thread run in it and are committed together.
+ * Calls running on other threads, like the async variants, are not part of the transaction.
+ */
+public final class Transaction {
+
+    private static final ThreadLocal<Transaction> current = new ThreadLocal<>();
+
+    private final PooledConnection connection;
+    private final int isolationLevel;
+    private final List<Runnable> completionActions = new ArrayList<>();
+    private boolean rollbackOnly = false;
+
+    /**
+     * Work running in a transaction
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run(Transaction transaction) throws Exception;
+    }
+
+    /**
+     * Work running in a transaction and producing a result
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(Transaction transaction) throws Exception;
+    }
+
+    private Transaction(PooledConnection connection, int isolationLevel) {
+        this.connection = connection;
+        this.isolationLevel = isolationLevel;
+    }
+
+    /**
+     * @return The transaction bound to the current thread, or null if there is none
+     */
+    public static Transaction current() {
+        return current.get();
+    }
+
+    /**
+     * Runs the work in a new transaction on the connection, or in the transaction already bound to the current thread.
+     * The transaction is committed once the work completes. It is rolled back if the work throws or
+     * {@link #setRollbackOnly()} was called; a joined transaction is only marked rollback only.
+     * @param connection Borrowed connection, closed once the transaction ended. Ignored if a transaction is joined.
+     * @param isolationLevel One of the JDBC {@code Connection.TRANSACTION_*} levels, or -1 to keep the level of the connection
+     * @return Result of the work
+     * @throws Exception thrown by the work, or by the commit
+     */
+    public static <T> T execute(ConnectionSupplier connection, int isolationLevel, Work<T> work) throws Exception {
+        if (work == null) {
+            throw new IllegalArgumentException("Work cannot be null");
+        }
+        Transaction outer = current.get();
+        if (outer != null) {
+            try {
+                return work.run(outer);
+            } catch (Exception | Error e) {
+                outer.rollbackOnly = true;
+                throw e;
+            }
+        }
+        try (PooledConnection pooled = connection.get()) {
+            Transaction transaction = new Transaction(pooled, isolationLevel);
+            return transaction.run(work);
+        }
+    }
+
+    /**
+     * Borrows the connection of a new transaction
+     */
+    @FunctionalInterface
+    public interface ConnectionSupplier {
+        PooledConnection get() throws SQLException;
+    }
+
+    private <T> T run(Work<T> work) throws Exception {
+        Connection con = connection.get();
+        boolean autoCommit = con.getAutoCommit();
+        int previousIsolation = con.getTransactionIsolation();
+        boolean committed = false;
+        try {
+            if (isolationLevel != -1) con.setTransactionIsolation(isolationLevel);
+            con.setAutoCommit(false);
+            current.set(this);
+            T result;
+            try {
+                result = work.run(this);
+            } finally {
+                current.remove();
+            }
+            if (!rollbackOnly) {
+                con.commit();
+                committed = true;
+            }
+            return result;
+        } finally {
+            try {
+                if (!committed) con.rollback();
+            } finally {
+                try {
+                    con.setAutoCommit(autoCommit);
+                    if (isolationLevel != -1) con.setTransactionIsolation(previousIsolation);
+                } finally {
+                    complete();
+                }
+            }
+        }
+    }
+
+    private void complete() {
+        for (Runnable action : completionActions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        completionActions.clear();
+    }
+
+    /**
+     * @return Shared handle on the connection of this transaction, closing it does not end the transaction
+     */
+    public PooledConnection connection() {
+        return connection.share();
+    }
+
+    /**
+     * @return The pool of the connection of this transaction
+     */
+    public SQLConnectionPool getPool() {
+        return connection.getPool();
+    }
+
+    /**
+     * @return The isolation level requested for this transaction, -1 if the level of the connection is kept
+     */
+    public int getIsolationLevel() {
+        return isolationLevel;
+    }
+
+    /**
+     * Marks the transaction to be rolled back instead of committed once the work completes
+     */
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    public boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    /**
+     * Registers an action to run once the transaction is committed or rolled back, e.g. to invalidate caches
+     */
+    public void afterCompletion(Runnable action) {
+        completionActions.add(action);
+    }
+}
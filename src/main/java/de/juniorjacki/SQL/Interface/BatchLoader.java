@@ -0,0 +1,175 @@
+package de.juniorjacki.SQL.Interface;
+
+import de.juniorjacki.SQL.SQL;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Coalesces point lookups of one key column into IN queries.
+ * Keys requested within the batching window, or until the batch is full, are loaded with one query and
+ * every caller is completed with the row of its key. Concurrent lookups of the same key share one future.
+ * Rows are keyed by the requested keys, see {@link DatabaseInterface#getByKeyIn(Enum, java.util.Collection)}.
+ * Keys of one batch that are equal under the collation of the column but not by equals, e.g. differing only in case,
+ * all get the row under the first of them, the others are completed empty.
+ *
+ * @param <R> The Record type
+ */
+public final class BatchLoader<R> {
+
+    private static final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BatchLoader-Flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Config config;
+    private final Function<List<Object>, Optional<Map<Object, R>>> batchFunction;
+    private final Object lock = new Object();
+    private Batch<R> pending = new Batch<>();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * @param window Time the first key of a batch waits for more keys
+     * @param maxBatchSize Number of distinct keys that dispatches a batch before the window ends
+     */
+    public record Config(Duration window, int maxBatchSize) {
+        public Config {
+            if (window == null || window.isNegative()) {
+                throw new IllegalArgumentException("Invalid batching window: " + window);
+            }
+            if (maxBatchSize < 1 || maxBatchSize > DatabaseInterface.MAX_IN_CHUNK_SIZE) {
+                throw new IllegalArgumentException("Invalid batch size: " + maxBatchSize + ", expected: 1 - " + DatabaseInterface.MAX_IN_CHUNK_SIZE);
+            }
+        }
+
+        public static Config defaults() {
+            return new Config(Duration.ofMillis(2), 256);
+        }
+    }
+
+    private static final class Batch<R> {
+        private final LinkedHashMap<Object, CompletableFuture<Optional<R>>> futures = new LinkedHashMap<>();
+    }
+
+    /**
+     * @param config Batching window and size
+     * @param batchFunction Loads the rows of a list of distinct keys, keyed by key value. An empty Optional fails the batch.
+     */
+    public BatchLoader(Config config, Function<List<Object>, Optional<Map<Object, R>>> batchFunction) {
+        if (config == null || batchFunction == null) {
+            throw new IllegalArgumentException("Config and batch function cannot be null");
+        }
+        this.config = config;
+        this.batchFunction = batchFunction;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Queues a key for the current batch
+     * @param key Filtered and type checked key value
+     * @return Future completed with the row of the key, empty if there is none or the batch failed
+     */
+    public CompletableFuture<Optional<R>> load(Object key) {
+        loads.increment();
+        CompletableFuture<Optional<R>> future;
+        Batch<R> full = null;
+        Batch<R> scheduled = null;
+        synchronized (lock) {
+            future = pending.futures.get(key);
+            if (future != null) {
+                deduplicated.increment();
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.futures.put(key, future);
+            if (pending.futures.size() >= config.maxBatchSize()) {
+                full = pending;
+                pending = new Batch<>();
+            } else if (pending.futures.size() == 1) {
+                scheduled = pending;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        } else if (scheduled != null) {
+            Batch<R> batch = scheduled;
+            flushScheduler.schedule(() -> flush(batch), config.window().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * Dispatches the current batch without waiting for the window to end
+     */
+    public void flush() {
+        Batch<R> batch;
+        synchronized (lock) {
+            if (pending.futures.isEmpty()) return;
+            batch = pending;
+            pending = new Batch<>();
+        }
+        dispatch(batch);
+    }
+
+    private void flush(Batch<R> batch) {
+        synchronized (lock) {
+            if (pending != batch) return; // Already dispatched because it was full
+            pending = new Batch<>();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch<R> batch) {
+        batches.increment();
+        SQL.Service.getAsyncExecutor().execute(() -> {
+            Optional<Map<Object, R>> rows;
+            try {
+                rows = batchFunction.apply(new ArrayList<>(batch.futures.keySet()));
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                rows = Optional.empty();
+            }
+            for (Map.Entry<Object, CompletableFuture<Optional<R>>> entry : batch.futures.entrySet()) {
+                entry.getValue().complete(rows.isPresent() ? Optional.ofNullable(rows.get().get(entry.getKey())) : Optional.empty());
+            }
+        });
+    }
+
+    /**
+     * @return Number of lookups queued, including deduplicated ones
+     */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * @return Number of IN queries dispatched
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return Number of lookups that joined a queued lookup of the same key
+     */
+    public long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+}
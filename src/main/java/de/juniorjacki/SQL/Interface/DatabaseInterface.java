@@ -1,898 +1,2210 @@
-package de.juniorjacki.SQL.Interface;
-
-import de.juniorjacki.SQL.Base.SQLInputFilter;
-import de.juniorjacki.SQL.SQL;
-import de.juniorjacki.SQL.Structure.DatabaseProperty;
-import de.juniorjacki.SQL.Type.DatabaseRecord;
-import de.juniorjacki.SQL.Structure.Table;
-import de.juniorjacki.SQL.Type.Record;
-
-import java.security.InvalidParameterException;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
-
-import static de.juniorjacki.SQL.Interface.InterDefinitions.setParameter;
-import static de.juniorjacki.SQL.Type.Record.getValueByName;
-
-import java.util.*;
-
-
-
-public interface DatabaseInterface<G extends Table<E, R>, R extends java.lang.Record & DatabaseRecord<R, E>, E extends Enum<E> & DatabaseProperty> {
-
-
-    G getInstance();
-
-    enum Order{
-        ASCENDING("ASC"),
-        DESCENDING("DESC");
-
-        public final String sql;
-        Order(String sql) {
-            this.sql = sql;
-        }
-    }
-
-    /**
-     * Record representing a key-value pair for database query
-     */
-    record ColumnValue<E>(E keyColumn, Object keyValue) {}
-
-
-    private void throwDBError(Exception e){
-        e.printStackTrace();
-    }
-    private void throwInputError(E keyColumn, Object keyValue) {
-        throw new InvalidParameterException("Invalid input for key column: " + keyColumn + ": " + keyValue);
-    }
-
-
-    /**
-     * Gets the count of specified data from the database.
-     * @return The count of rows found
-     */
-    default int countByValue(E keyColumn, Object keyValue) {
-        try {
-            keyValue = SQLInputFilter.filterExternalInput(keyValue); // Filter SQL Injection
-            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
-                throwInputError(keyColumn, keyValue);
-                return 0;
-            }
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement("SELECT COUNT(*) FROM " + getInstance().tableName() + " WHERE " + keyColumn.name() + " = ?")) {
-                setParameter(prepStatement, 1, keyValue);
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    if (rs.next()) {
-                        return rs.getInt(1);
-                    } else {
-                        return 0;
-                    }
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return 0;
-        }
-    }
-
-
-    /**
-     * Gets the count of specified data from the database.
-     * @return The count of rows found with the same Data
-     */
-    default <T> Optional<Map<T,Integer>> countByColumn(E keyColumn) {
-        try {
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement("SELECT "+keyColumn.name()+",COUNT(*) AS COUNT FROM " + getInstance().tableName() + " GROUP BY " + keyColumn.name())) {
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    Map<T,Integer> counts = new HashMap<>();
-                    while (rs.next()) {
-                        counts.put((T) getTypedValue(rs, keyColumn), rs.getInt("COUNT"));
-                    }
-                    return Optional.of(counts);
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-
-    /**
-     * @return All KeyColumns with their valuecolumn
-     */
-    default <T,U> Optional<Map<T,U>> getValuesForColumnAssociatedWithColumn(E keyColumn,E valueColumn) {
-        try {
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement("SELECT "+keyColumn.name()+","+valueColumn.name()+" FROM " + getInstance().tableName())) {
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    Map<T,U> counts = new HashMap<>();
-                    while (rs.next()) {
-                        counts.put((T) getTypedValue(rs, keyColumn), (U) getTypedValue(rs, valueColumn));
-                    }
-                    return Optional.of(counts);
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-
-
-
-    /**
-     * Checks if the specified data exists in the database.
-     * @return true if the element exists, false otherwise
-     */
-    default boolean existsByKey(E keyColumn, Object keyValue) {
-        try {
-            keyValue = SQLInputFilter.filterExternalInput(keyValue); // Filter SQL Injection
-            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
-                throwInputError(keyColumn, keyValue);
-                return false;
-            }
-
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement("SELECT 1 FROM " + getInstance().tableName() + " WHERE " + keyColumn.name() + " = ? LIMIT 1")) {
-                setParameter(prepStatement, 1, keyValue);
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    return rs.next();
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return false;
-        }
-    }
-
-    /**
-     * Checks if the specified data exists in the database based on key-value pairs.
-     * @param pairs One or more column-value pairs to check
-     * @return true if the element exists, false otherwise
-     */
-    default boolean existsByKeys(ColumnValue<E>... pairs) {
-        try {
-            if (pairs == null || pairs.length == 0) {
-                throw new IllegalArgumentException("At least one column-value pair must be provided");
-            }
-            StringBuilder whereClause = new StringBuilder();
-            int paramCount = 0;
-            for (ColumnValue<E> pair : pairs) {
-                E keyColumn = pair.keyColumn();
-                Object keyValue = SQLInputFilter.filterExternalInput(pair.keyValue());
-
-                if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
-                    throwInputError(keyColumn, keyValue);
-                    return false;
-                }
-
-                if (paramCount > 0) {
-                    whereClause.append(" AND ");
-                }
-                whereClause.append(keyColumn.name()).append(" = ?");
-                paramCount++;
-            }
-            try (PreparedStatement prepStatement = SQL.getConnection().get()
-                    .prepareStatement("SELECT 1 FROM " + getInstance().tableName() + " WHERE " + whereClause + " LIMIT 1")) {
-                for (int i = 0; i < pairs.length; i++) {
-                    setParameter(prepStatement, i + 1, pairs[i].keyValue());
-                }
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    return rs.next();
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return false;
-        }
-    }
-
-    /**
-     * Checks if the specified data exists in the database based on any key-value pairs.
-     * @param pairs One or more column-value pairs to check
-     * @return true if any of the pairs exists, false otherwise
-     */
-    default boolean existsByAnyKeys(ColumnValue<E>... pairs) {
-        try {
-            if (pairs == null || pairs.length == 0) {
-                throw new IllegalArgumentException("At least one column-value pair must be provided");
-            }
-            StringBuilder whereClause = new StringBuilder();
-            int paramCount = 0;
-            for (ColumnValue<E> pair : pairs) {
-                E keyColumn = pair.keyColumn();
-                Object keyValue = SQLInputFilter.filterExternalInput(pair.keyValue());
-
-                if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
-                    throwInputError(keyColumn, keyValue);
-                    return false;
-                }
-
-                if (paramCount > 0) {
-                    whereClause.append(" OR ");
-                }
-                whereClause.append(keyColumn.name()).append(" = ?");
-                paramCount++;
-            }
-
-            try (PreparedStatement prepStatement = SQL.getConnection().get()
-                    .prepareStatement("SELECT 1 FROM " + getInstance().tableName() + " WHERE " + whereClause + " LIMIT 1")) {
-                for (int i = 0; i < pairs.length; i++) {
-                    setParameter(prepStatement, i + 1, pairs[i].keyValue());
-                }
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    return rs.next();
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return false;
-        }
-    }
-
-
-
-    /**
-     * Checks if the specified data exists in the database based on any key-value pairs.
-     * @param pairs One or more column-value pairs to check
-     * @return true if any of the pairs exists, false otherwise
-     */
-    default boolean existsByKeyAndAnyValues(ColumnValue<E> keyPair,ColumnValue<E>... pairs) {
-        try {
-            if (keyPair == null || pairs == null || pairs.length == 0) {
-                throw new IllegalArgumentException("At least one column-value pair must be provided");
-            }
-            StringBuilder whereClause = new StringBuilder();
-            int paramCount = 0;
-
-            E keyColumn = keyPair.keyColumn();
-            Object keyValue = SQLInputFilter.filterExternalInput(keyPair.keyValue());
-            whereClause.append(keyColumn.name()).append(" = ?");
-            whereClause.append(" AND (");
-
-            for (ColumnValue<E> pair : pairs) {
-                E column = pair.keyColumn();
-                Object value = SQLInputFilter.filterExternalInput(pair.keyValue());
-
-                if (!column.getType().getTypeClass().isInstance(value)) {
-                    throwInputError(column, value);
-                    return false;
-                }
-
-                if (paramCount > 0) {
-                    whereClause.append(" OR ");
-                }
-                whereClause.append(column.name()).append(" = ?");
-                paramCount++;
-            }
-            whereClause.append(" )");
-
-            try (PreparedStatement prepStatement = SQL.getConnection().get()
-                    .prepareStatement("SELECT 1 FROM " + getInstance().tableName() + " WHERE " + whereClause + " LIMIT 1")) {
-                setParameter(prepStatement, 1, keyValue);
-                for (int i = 0; i < pairs.length; i++) {
-                    setParameter(prepStatement, i + 2, pairs[i].keyValue());
-                }
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    return rs.next();
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return false;
-        }
-    }
-
-
-    /**
-     * Gets Specified Data from Database
-     * @return List of Table Record
-     */
-    default Optional<List<R>> getByKey(E keyColumn, Object keyValue) {
-        try {
-            keyValue = SQLInputFilter.filterExternalInput(keyValue); // Filter SQL Injection
-            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
-                throwInputError(keyColumn, keyValue);
-                return Optional.empty();
-            }
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement("SELECT * FROM " + getInstance().tableName() + " WHERE " + keyColumn.name() + " = ?")) {
-                setParameter(prepStatement, 1, keyValue);
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    List<R> objects = new ArrayList<>();
-                    while (rs.next()) {
-                        objects.add((R) Record.populateRecord(getInstance(), rs));
-                    }
-                    return Optional.of(objects);
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Gets Specified Data from Database
-     * @return List of Table Record
-     */
-    default Optional<List<R>> getAll() {
-        try {
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement("SELECT * FROM " + getInstance().tableName())) {
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    List<R> objects = new ArrayList<>();
-                    while (rs.next()) {
-                        objects.add((R) Record.populateRecord(getInstance(), rs));
-                    }
-                    return Optional.of(objects);
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-
-
-
-
-
-    /**
-     * Gets Specified Data from Database
-     * @return First Table Record
-     */
-    default Optional<List<R>> getEveryXRow(E orderColumn,Order order,int x,int limit) {
-        try {
-            if (x < 1 || limit < 1) {
-               throw new InvalidParameterException("Invalid value for x: "+ x+", expected: >= 1");
-            }
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(" SELECT * FROM (SELECT *,ROW_NUMBER() OVER (ORDER BY "+orderColumn.name()+" " +order.sql+ ") AS row_num FROM "+getInstance().tableName()+") numbered WHERE row_num % "+x+" = 0 limit "+limit+";")) {
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    List<R> objects = new ArrayList<>();
-                    while (rs.next()) {
-                        objects.add((R) Record.populateRecord(getInstance(), rs));
-                    }
-                    return Optional.of(objects);
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-
-
-
-
-    /**
-     * Gets Specified Data from Database
-     * @return First Table Record
-     */
-    default Optional<R> getFirstByKey(E keyColumn, Object keyValue) {
-        try {
-            keyValue = SQLInputFilter.filterExternalInput(keyValue); // Filter SQL Injection
-            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
-                throwInputError(keyColumn, keyValue);
-                return Optional.empty();
-            }
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement("SELECT * FROM " + getInstance().tableName() + " WHERE " + keyColumn.name() + " = ? LIMIT 1")) {
-                setParameter(prepStatement, 1, keyValue);
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    if (rs.next()) {
-                        return Optional.of((R) Record.populateRecord(getInstance(), rs));
-                    }
-                    return Optional.empty();
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Gets Specified Data from Database
-     * @return Returns List of Column Type Objects as List
-     */
-    default <T> Optional<T> getFirstColumnByKey(E keyColumn, Object keyValue, E returnColumn) {
-        try {
-            keyValue = SQLInputFilter.filterExternalInput(keyValue); // Filter SQL Injection
-            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
-                throwInputError(keyColumn, keyValue);
-                return Optional.empty();
-            }
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(String.format("SELECT %s FROM %s WHERE %s = ? LIMIT 1", returnColumn.name(), getInstance().tableName(), keyColumn.name()))) {
-                setParameter(prepStatement, 1, keyValue);
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    if (rs.next()) {
-                        return (Optional<T>) Optional.of(getTypedValue(rs, returnColumn));
-                    }
-                    return Optional.empty();
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Gets the first or last value from in the database, based on the orderColumn.
-     * @param orderColumn The column to filter by
-     * @param order The order (ascending or descending)
-     * @return Returns a single table record as an Object
-     */
-    default Optional<R> getByOrder(E orderColumn, Order order) {
-        try {
-            String query = String.format("SELECT * FROM %s ORDER BY %s %s LIMIT 1", getInstance().tableName(), orderColumn.name(), order.sql);
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(query)) {
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    if (rs.next()) {
-                        return Optional.of((R) Record.populateRecord(getInstance(), rs));
-                    } else {
-                        return Optional.empty();
-                    }
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Gets the first or last value from in the database, based on the Key.
-     * @param keyColumn The column to filter by
-     * @param keyValue The value to filter by
-     * @param orderColumn Column to order
-     * @param order The order (ascending or descending)
-     * @return Returns a single table record as an Object
-     */
-    default Optional<R> getByOrderAndKey(E keyColumn,Object keyValue,E orderColumn, Order order) {
-        try {
-            keyValue = SQLInputFilter.filterExternalInput(keyValue); // Filter SQL Injection
-            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
-                throwInputError(keyColumn, keyValue);
-                return Optional.empty();
-            }
-            String query = String.format("SELECT * FROM %s WHERE %s = ? ORDER BY %s %s LIMIT 1", getInstance().tableName(),keyColumn.name(), orderColumn.name(), order.sql);
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(query)) {
-                setParameter(prepStatement, 1, keyValue);
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    if (rs.next()) {
-                        return Optional.of((R) Record.populateRecord(getInstance(), rs));
-                    } else {
-                        return Optional.empty();
-                    }
-                }
-            }
-        }
-        catch (Exception e) {
-            e.printStackTrace();
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Gets the first or last value from in the database, based on the Keys.
-     * @param orderColumn Column to order
-     * @param order The order (ascending or descending)
-     * @return Returns a single table record as an Object
-     */
-    default Optional<R> getByOrderAndKeys(E orderColumn, Order order,ColumnValue<E>... keyPairs) {
-        try {
-            if (keyPairs == null || keyPairs.length == 0) {
-                throw new InvalidParameterException("At least one column-value pair must be provided");
-            }
-            // Validate all parameters upfront
-            for (ColumnValue<E> pair : keyPairs) {
-                if (!pair.keyColumn().getType().getTypeClass().isInstance(pair.keyValue())) {
-                    throwInputError(pair.keyColumn(), pair.keyValue());
-                    return Optional.empty();
-                }
-            }
-            // Use Stream to build WHERE clause efficiently
-            String whereClause = Arrays.stream(keyPairs)
-                    .map(pair -> pair.keyColumn().name() + " = ?")
-                    .collect(Collectors.joining(" AND "));
-
-            String query = "SELECT * FROM " + getInstance().tableName() +
-                    " WHERE " + whereClause +
-                    " ORDER BY " + orderColumn.name() + " " + order.sql +
-                    " LIMIT 1";
-            return executeQuery(query, (ColumnValue<E>[]) keyPairs);
-        }
-        catch (Exception e) {
-            e.printStackTrace();
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Gets value from in the database, based on the Keys specified.
-     * @return Returns a single table record as an Object
-     */
-    default Optional<R> getByKeys(ColumnValue<E>... keyPairs) {
-        try {
-            if (keyPairs == null || keyPairs.length == 0) {
-                throw new InvalidParameterException("At least one column-value pair must be provided");
-            }
-            // Validate all parameters upfront
-            for (ColumnValue<E> pair : keyPairs) {
-                if (!pair.keyColumn().getType().getTypeClass().isInstance(pair.keyValue())) {
-                    throwInputError(pair.keyColumn(), pair.keyValue());
-                    return Optional.empty();
-                }
-            }
-            // Use Stream to build WHERE clause efficiently
-            String whereClause = Arrays.stream(keyPairs)
-                    .map(pair -> pair.keyColumn().name() + " = ?")
-                    .collect(Collectors.joining(" AND "));
-
-            String query = "SELECT * FROM " + getInstance().tableName() +
-                    " WHERE " + whereClause +
-                    " LIMIT 1";
-            return executeQuery(query, (ColumnValue<E>[]) keyPairs);
-        }
-        catch (Exception e) {
-            e.printStackTrace();
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Deletes a row from the database based on the provided key-value pairs.
-     * @param keyPairs The column-value pairs to match for deletion
-     * @return true if a row was deleted, false otherwise
-     */
-    default boolean deleteByKeys(ColumnValue<E>... keyPairs) {
-        try {
-            if (keyPairs == null || keyPairs.length == 0) {
-                throw new InvalidParameterException("At least one column-value pair must be provided");
-            }
-            // Validate all parameters upfront
-            for (ColumnValue<E> pair : keyPairs) {
-                if (!pair.keyColumn().getType().getTypeClass().isInstance(pair.keyValue())) {
-                    throwInputError(pair.keyColumn(), pair.keyValue());
-                    return false;
-                }
-            }
-            // Use Stream to build WHERE clause efficiently
-            String whereClause = Arrays.stream(keyPairs)
-                    .map(pair -> pair.keyColumn().name() + " = ?")
-                    .collect(Collectors.joining(" AND "));
-
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement("DELETE FROM " + getInstance().tableName() +
-                    " WHERE " + whereClause)) {
-                for (int i = 0; i < keyPairs.length; i++) {
-                    setParameter(prepStatement, i + 1, SQLInputFilter.filterExternalInput(keyPairs[i].keyValue()));
-                }
-                int rowsAffected = prepStatement.executeUpdate();
-                return rowsAffected > 0;
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            throwDBError(e);
-            return false;
-        }
-    }
-
-
-    /**
-     * Gets Specified Data from Database
-     * @param keyColumn
-     * @param keyValue
-     * @param returnColumn
-     * @return Returns List of Column Type Objects as List
-     */
-    default <T> Optional<List<T>> getColumnByValue(E keyColumn, Object keyValue, E returnColumn) {
-        try {
-            keyValue = SQLInputFilter.filterExternalInput(keyValue); // Filter SQL Injection
-            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
-                throwInputError(keyColumn, keyValue);
-                return Optional.empty();
-            }
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(String.format("SELECT %s FROM %s WHERE %s = ?", returnColumn.name(), getInstance().tableName(), keyColumn.name()))) {
-                setParameter(prepStatement, 1, keyValue);
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    List<Object> resultList = new ArrayList<>();
-                    while (rs.next()) {
-                        resultList.add(getTypedValue(rs, returnColumn));
-                    }
-                    return Optional.of((List<T>) resultList);
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-
-    /**
-     * Gets the first or last value from the specified column in the database, based on the keyColumn.
-     * @param keyColumn The column to order by
-     * @param returnColumn The column to return
-     * @param order The order (ascending or descending)
-     * @return Returns a single column value as an Object
-     */
-    default Optional<Object> getColumnByOrder(E keyColumn, E returnColumn, Order order) {
-        try {
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(String.format("SELECT %s FROM %s ORDER BY %s %s LIMIT 1", returnColumn.name(), getInstance().tableName(), keyColumn.name(), order.sql));
-                 ResultSet rs = prepStatement.executeQuery()) {
-
-                if (rs.next()) {
-                    return Optional.of(getTypedValue(rs, returnColumn));
-                } else {
-                    return Optional.empty();
-                }
-            }
-        }
-        catch (Exception e) {
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-
-    /**
-     * Gets the first or last value from in the database, based on the Key.
-     * @param keyColumn The column to filter by
-     * @param keyValue The value to filter by
-     * @param orderColumn Column to order
-     * @param order The order (ascending or descending)
-     * @return Returns a Column
-     */
-    default Optional<Object> getColumnByOrderAndKey(E keyColumn,Object keyValue,E orderColumn, Order order,E returnColumn) {
-        try {
-            keyValue = SQLInputFilter.filterExternalInput(keyValue); // Filter SQL Injection
-            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
-                throwInputError(keyColumn, keyValue);
-                return Optional.empty();
-            }
-            String query = String.format("SELECT %s FROM %s WHERE %s = ? ORDER BY %s %s LIMIT 1", returnColumn.name(),getInstance().tableName(),keyColumn.name(), orderColumn.name(), order.sql);
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(query)) {
-                setParameter(prepStatement, 1, keyValue);
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    if (rs.next()) {
-                        return Optional.of(getTypedValue(rs, returnColumn));
-                    } else {
-                        return Optional.empty();
-                    }
-                }
-            }
-        }
-        catch (Exception e) {
-            e.printStackTrace();
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Gets the first or last value from in the database, based on the Keys.
-     * @param orderColumn Column to order
-     * @param order The order (ascending or descending)
-     * @return Returns a Column
-     */
-    default Optional<Object> getColumnByOrderAndKeys(E orderColumn, Order order,E returnColumn,ColumnValue<E>... keyPairs) {
-        try {
-            if (keyPairs == null || keyPairs.length == 0) {
-                throw new InvalidParameterException("At least one column-value pair must be provided");
-            }
-            // Validate all parameters upfront
-            for (ColumnValue<E> pair : keyPairs) {
-                if (!pair.keyColumn().getType().getTypeClass().isInstance(pair.keyValue())) {
-                    throwInputError(pair.keyColumn(), pair.keyValue());
-                    return Optional.empty();
-                }
-            }
-            // Use Stream to build WHERE clause efficiently
-            String whereClause = Arrays.stream(keyPairs)
-                    .map(pair -> pair.keyColumn().name() + " = ?")
-                    .collect(Collectors.joining(" AND "));
-
-            String query = "SELECT * FROM " + getInstance().tableName() +
-                    " WHERE " + whereClause +
-                    " ORDER BY " + orderColumn.name() + " " + order.sql +
-                    " LIMIT 1";
-
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(query)) {
-                for (int i = 0; i < keyPairs.length; i++) {
-                    setParameter(prepStatement, i + 1, SQLInputFilter.filterExternalInput(keyPairs[i].keyValue()));
-                }
-                try (ResultSet rs = prepStatement.executeQuery()) {
-                    if (rs.next()) {
-                        return Optional.of(getTypedValue(rs, returnColumn));
-                    } else {
-                        return Optional.empty();
-                    }
-                }
-            }
-        }
-        catch (Exception e) {
-            e.printStackTrace();
-            throwDBError(e);
-            return Optional.empty();
-        }
-    }
-
-    /**
-     * Updates specified Rows with specified Data
-     * @return If Success returns True
-     */
-    default boolean update(E keyColumn, Object keyValue, E updateColumn, Object updateValue) {
-        try {
-            try (PreparedStatement preparedStatement = SQL.getConnection().get().prepareStatement("UPDATE "+getInstance().tableName() +" SET " + updateColumn.name() + " = ? WHERE " + keyColumn.name() + " = ?")) {
-                setParameter(preparedStatement, 1, SQLInputFilter.filterExternalInput(updateValue));
-                setParameter(preparedStatement, 2, SQLInputFilter.filterExternalInput(keyValue));
-                int affectedRows = preparedStatement.executeUpdate();
-                return affectedRows > 0;
-            }
-        }  catch (Exception e) {
-            throwDBError(e);
-            return false;
-        }
-    }
-
-
-    /**
-     * Updates the first row based on the specified key column and order, updating the updateColumn with updateValue.
-     * @param keyColumn The column to order by
-     * @param order The order (ascending or descending)
-     * @param updateColumn The column to update
-     * @param updateValue The value to update the column with
-     * @return If success, returns true
-     */
-    default boolean updateByOrder(E keyColumn, Order order, E updateColumn, Object updateValue) {
-        try {
-            try (PreparedStatement preparedStatement = SQL.getConnection().get().prepareStatement(String.format("UPDATE %s SET %s = ? WHERE %s = (SELECT %s FROM %s ORDER BY %s %s LIMIT 1)",
-                    getInstance().tableName(), updateColumn.name(), keyColumn.name(), keyColumn.name(), getInstance().tableName(), keyColumn.name(), order.sql))) {
-                setParameter(preparedStatement, 1, SQLInputFilter.filterExternalInput(updateValue));
-                int affectedRows = preparedStatement.executeUpdate();
-                return affectedRows > 0;
-            }
-        }  catch (Exception e) {
-            throwDBError(e);
-            return false;
-        }
-    }
-
-    /**
-     * Updates Rows by specified Key Values in Record with Data of Record
-     * @param record
-     * @return If Success returns True
-     * @throws Exception
-     */
-    default boolean update(R record) {
-        try {
-            record = SQLInputFilter.filterExternalInput(record); // Filter SQL Injection
-            List<E> properties = getInstance().getProperties();
-            String setClause = properties.stream()
-                    .filter(property -> !property.isKey())
-                    .map(property -> property.name() + " = ?")
-                    .collect(Collectors.joining(", "));
-            if (setClause.isEmpty()) {
-                throw new IllegalArgumentException("No non-key properties to update");
-            }
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(String.format("UPDATE %s SET %s WHERE %s;", getInstance().tableName(), setClause,
-                    properties.stream().filter(E::isKey).map(property -> property.name() + " = ?").collect(Collectors.joining(" AND "))))) {
-                int index = setParameters(prepStatement, record, properties, false);
-                setParameters(prepStatement, record, properties, true, index);
-                return prepStatement.executeUpdate() > 0;
-            }
-        }  catch (Exception e) {
-            throwDBError(e);
-            return false;
-        }
-    }
-
-    /**
-     * Upsert's entire Record into Database
-     * @param record
-     * @return If Success returns True
-     * @throws Exception
-     */
-    default boolean upsert(R record) {
-        try {
-            record = SQLInputFilter.filterExternalInput(record); // Filter SQL Injection
-            List<E> properties = getInstance().getProperties();
-            try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(String.format("INSERT INTO %s (%s) VALUES (%s) ON DUPLICATE KEY UPDATE %s;",
-                    getInstance().tableName(),
-                    properties.stream().map(Enum::name).collect(Collectors.joining(", ")),
-                    properties.stream().map(p -> "?").collect(Collectors.joining(", ")),
-                    properties.stream().map(p -> p.name() + " = VALUES(" + p.name() + ")").collect(Collectors.joining(", "))
-            ))) {
-                setParameters(prepStatement, record, properties);
-                return prepStatement.executeUpdate() > 0;
-            }
-        }  catch (Exception e) {
-            throwDBError(e);
-            return false;
-        }
-
-    }
-
-
-    private Optional<R> executeQuery(String query, ColumnValue<E>[] keyPairs) throws Exception {
-        try (PreparedStatement prepStatement = SQL.getConnection().get().prepareStatement(query)) {
-            for (int i = 0; i < keyPairs.length; i++) {
-                setParameter(prepStatement, i + 1, SQLInputFilter.filterExternalInput(keyPairs[i].keyValue()));
-            }
-            try (ResultSet rs = prepStatement.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of((R) Record.populateRecord(getInstance(), rs));
-                } else {
-                    return Optional.empty();
-                }
-            }
-        }
-    }
-
-
-    private void setParameters(PreparedStatement prepStatement, R record, List<E> properties) throws SQLException, NoSuchFieldException, IllegalAccessException {
-        for (int index = 0; index < properties.size(); index++) {
-            setParameter(prepStatement, index + 1, getValueByName(record, properties.get(index).name()));
-        }
-    }
-
-    private int setParameters(PreparedStatement prepStatement, R record, List<E> properties, boolean keysOnly) throws
-            SQLException, NoSuchFieldException, IllegalAccessException {
-        return setParameters(prepStatement, record, properties, keysOnly, 1);
-    }
-
-    private int setParameters(PreparedStatement prepStatement, R record, List<E> properties, boolean keysOnly,
-                              int startIndex) throws SQLException, NoSuchFieldException, IllegalAccessException {
-        int index = startIndex;
-        for (E property : properties) {
-            if (property.isKey() == keysOnly) {
-                Object value = getValueByName(record, property.name());
-                setParameter(prepStatement, index++, value);
-            }
-        }
-        return index;
-    }
-
-
-    static Object getTypedValue(ResultSet rs, DatabaseProperty returnColumn) throws SQLException {
-        return InterDefinitions.getTypedValue(rs,returnColumn,null);
-    }
-
-
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
+package de.juniorjacki.SQL.Interface;
+
+import de.juniorjacki.SQL.Base.SQLInputFilter;
+import de.juniorjacki.SQL.Connection.PooledConnection;
+import de.juniorjacki.SQL.Connection.SQLConnection;
+import de.juniorjacki.SQL.Connection.Transaction;
+import de.juniorjacki.SQL.SQL;
+import de.juniorjacki.SQL.Structure.DatabaseProperty;
+import de.juniorjacki.SQL.Type.DatabaseRecord;
+import de.juniorjacki.SQL.Structure.Table;
+import de.juniorjacki.SQL.Structure.TableMetadata;
+import de.juniorjacki.SQL.Type.RecordMapper;
+
+import java.security.InvalidParameterException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static de.juniorjacki.SQL.Interface.InterDefinitions.setParameter;
+import static de.juniorjacki.SQL.Type.Record.getValueByName;
+
+import java.util.*;
+
+
+
+public interface DatabaseInterface<G extends Table<E, R>, R extends java.lang.Record & DatabaseRecord<R, E>, E extends Enum<E> & DatabaseProperty> {
+
+
+    G getInstance();
+
+    /**
+     * Upper bound of placeholders MySQL accepts in one prepared statement
+     */
+    int MAX_STATEMENT_PARAMETERS = 65535;
+    /** Default number of values per query of the IN lookups */
+    int DEFAULT_IN_CHUNK_SIZE = 1000;
+    /** Upper bound of values per query of the IN lookups, every value is bound twice */
+    int MAX_IN_CHUNK_SIZE = MAX_STATEMENT_PARAMETERS / 2;
+
+    enum Order{
+        ASCENDING("ASC"),
+        DESCENDING("DESC");
+
+        public final String sql;
+        Order(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * Record representing a key-value pair for database query
+     */
+    record ColumnValue<E>(E keyColumn, Object keyValue) {}
+
+    /**
+     * Options for bulk writes
+     * @param chunkSize Records written per round trip and committed together
+     * @param multiRowValues Send each chunk as one INSERT with multiple VALUES rows instead of a JDBC batch
+     */
+    record BatchOptions(int chunkSize, boolean multiRowValues) {
+        public BatchOptions {
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("Invalid chunk size: " + chunkSize + ", expected: >= 1");
+            }
+        }
+
+        public static BatchOptions defaults() {
+            return new BatchOptions(1000, false);
+        }
+    }
+
+    /**
+     * Result of one chunk of a bulk write
+     * @param offset Index of the first record of the chunk in the written collection
+     * @param size Number of records in the chunk
+     * @param affectedRows Rows reported as affected by the database
+     * @param success false if the chunk failed and was rolled back
+     */
+    record BatchResult(int offset, int size, int affectedRows, boolean success) {}
+
+
+    private void throwDBError(Exception e){
+        SQL.reportError(e);
+        e.printStackTrace();
+    }
+    private void throwInputError(E keyColumn, Object keyValue) {
+        throw new InvalidParameterException("Invalid input for key column: " + keyColumn + ": " + keyValue);
+    }
+
+
+    /**
+     * Gets the count of specified data from the database.
+     * @return The count of rows found
+     */
+    default int countByValue(E keyColumn, Object keyValue) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            Object value = keyValue;
+            return keyColumn == sharding.shardColumn()
+                    ? onShard(sharding, value, () -> countByValue(keyColumn, value), 0)
+                    : onAllShards(sharding, shard -> countByValue(keyColumn, value)).map(counts -> counts.stream().mapToInt(Integer::intValue).sum()).orElse(0);
+        }
+        try {
+            keyValue = SQLInputFilter.filterBoundInput(keyValue); // Filter SQL Injection
+            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                throwInputError(keyColumn, keyValue);
+                return 0;
+            }
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(getInstance().metadata().countBy(keyColumn))) {
+                setParameter(prepStatement, 1, keyValue);
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    } else {
+                        return 0;
+                    }
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return 0;
+        }
+    }
+
+
+    /**
+     * Gets the count of specified data from the database.
+     * @return The count of rows found with the same Data
+     */
+    default <T> Optional<Map<T,Integer>> countByColumn(E keyColumn) {
+        return countByColumn(keyColumn, null);
+    }
+
+    /**
+     * Gets the count of specified data from the database, cached in the {@link SQL#getQueryCache() query cache}.
+     * Cached counts are dropped after cacheTtl or once a write through this interface changes the Table.
+     * @param cacheTtl Time the counts stay cached, null to always read them from the database
+     * @return The count of rows found with the same Data
+     */
+    default <T> Optional<Map<T,Integer>> countByColumn(E keyColumn, Duration cacheTtl) {
+        try {
+            String query = getInstance().metadata().countGroupedBy(keyColumn);
+            Sharding<E> sharding = sharding();
+            Callable<Optional<Map<T,Integer>>> read = () -> {
+                if (sharding != null) return mergeShards(sharding, () -> countByColumn(keyColumn), Integer::sum);
+                try (PooledConnection connection = SQL.borrowReadConnection();
+                     PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                    try (ResultSet rs = prepStatement.executeQuery()) {
+                        Map<T,Integer> counts = new HashMap<>();
+                        while (rs.next()) {
+                            counts.put((T) getTypedValue(rs, 1, keyColumn), rs.getInt(2));
+                        }
+                        return Optional.of(counts);
+                    }
+                }
+            };
+            if (cacheTtl == null || Transaction.current() != null || SQL.isShardBound()) return read.call();
+            return SQL.Service.getQueryCache().get(query, List.of(), List.of(getInstance().tableName()), cacheTtl, read, counts -> counts.map(HashMap::new));
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+
+    /**
+     * @return All KeyColumns with their valuecolumn
+     */
+    default <T,U> Optional<Map<T,U>> getValuesForColumnAssociatedWithColumn(E keyColumn,E valueColumn) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return mergeShards(sharding, () -> getValuesForColumnAssociatedWithColumn(keyColumn, valueColumn), (first, second) -> first);
+        }
+        try {
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(getInstance().metadata().selectColumnPair(keyColumn, valueColumn))) {
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    Map<T,U> counts = new HashMap<>();
+                    while (rs.next()) {
+                        counts.put((T) getTypedValue(rs, 1, keyColumn), (U) getTypedValue(rs, 2, valueColumn));
+                    }
+                    return Optional.of(counts);
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+
+
+
+    /**
+     * Checks if the specified data exists in the database.
+     * @return true if the element exists, false otherwise
+     */
+    default boolean existsByKey(E keyColumn, Object keyValue) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            Object value = keyValue;
+            return keyColumn == sharding.shardColumn()
+                    ? onShard(sharding, value, () -> existsByKey(keyColumn, value), false)
+                    : anyShard(sharding, () -> existsByKey(keyColumn, value));
+        }
+        try {
+            keyValue = SQLInputFilter.filterBoundInput(keyValue); // Filter SQL Injection
+            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                throwInputError(keyColumn, keyValue);
+                return false;
+            }
+
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(getInstance().metadata().existsBy(keyColumn))) {
+                setParameter(prepStatement, 1, keyValue);
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the specified data exists in the database based on key-value pairs.
+     * @param pairs One or more column-value pairs to check
+     * @return true if the element exists, false otherwise
+     */
+    default boolean existsByKeys(ColumnValue<E>... pairs) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            ColumnValue<E> shardPair = shardPair(sharding, pairs);
+            return shardPair != null
+                    ? onShard(sharding, shardPair.keyValue(), () -> existsByKeys(pairs), false)
+                    : anyShard(sharding, () -> existsByKeys(pairs));
+        }
+        try {
+            if (pairs == null || pairs.length == 0) {
+                throw new IllegalArgumentException("At least one column-value pair must be provided");
+            }
+            Object[] keyValues = new Object[pairs.length];
+            for (int i = 0; i < pairs.length; i++) {
+                E keyColumn = pairs[i].keyColumn();
+                Object keyValue = SQLInputFilter.filterBoundInput(pairs[i].keyValue());
+
+                if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                    throwInputError(keyColumn, keyValue);
+                    return false;
+                }
+                keyValues[i] = keyValue;
+            }
+            TableMetadata<E> metadata = getInstance().metadata();
+            List<E> columns = columnsOf(pairs);
+            String query = metadata.template("existsByKeys", columns, () ->
+                    "SELECT 1 FROM " + metadata.tableName() + " WHERE " + TableMetadata.join(columns, " = ?", " AND ") + " LIMIT 1");
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                for (int i = 0; i < keyValues.length; i++) {
+                    setParameter(prepStatement, i + 1, keyValues[i]);
+                }
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the specified data exists in the database based on any key-value pairs.
+     * @param pairs One or more column-value pairs to check
+     * @return true if any of the pairs exists, false otherwise
+     */
+    default boolean existsByAnyKeys(ColumnValue<E>... pairs) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return anyShard(sharding, () -> existsByAnyKeys(pairs));
+        }
+        try {
+            if (pairs == null || pairs.length == 0) {
+                throw new IllegalArgumentException("At least one column-value pair must be provided");
+            }
+            Object[] keyValues = new Object[pairs.length];
+            for (int i = 0; i < pairs.length; i++) {
+                E keyColumn = pairs[i].keyColumn();
+                Object keyValue = SQLInputFilter.filterBoundInput(pairs[i].keyValue());
+
+                if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                    throwInputError(keyColumn, keyValue);
+                    return false;
+                }
+                keyValues[i] = keyValue;
+            }
+            TableMetadata<E> metadata = getInstance().metadata();
+            List<E> columns = columnsOf(pairs);
+            String query = metadata.template("existsByAnyKeys", columns, () ->
+                    "SELECT 1 FROM " + metadata.tableName() + " WHERE " + TableMetadata.join(columns, " = ?", " OR ") + " LIMIT 1");
+
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                for (int i = 0; i < keyValues.length; i++) {
+                    setParameter(prepStatement, i + 1, keyValues[i]);
+                }
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return false;
+        }
+    }
+
+
+
+    /**
+     * Checks if the specified data exists in the database based on any key-value pairs.
+     * @param pairs One or more column-value pairs to check
+     * @return true if any of the pairs exists, false otherwise
+     */
+    default boolean existsByKeyAndAnyValues(ColumnValue<E> keyPair,ColumnValue<E>... pairs) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null && keyPair != null) {
+            return keyPair.keyColumn() == sharding.shardColumn()
+                    ? onShard(sharding, keyPair.keyValue(), () -> existsByKeyAndAnyValues(keyPair, pairs), false)
+                    : anyShard(sharding, () -> existsByKeyAndAnyValues(keyPair, pairs));
+        }
+        try {
+            if (keyPair == null || pairs == null || pairs.length == 0) {
+                throw new IllegalArgumentException("At least one column-value pair must be provided");
+            }
+            E keyColumn = keyPair.keyColumn();
+            Object keyValue = SQLInputFilter.filterBoundInput(keyPair.keyValue());
+
+            Object[] values = new Object[pairs.length];
+            for (int i = 0; i < pairs.length; i++) {
+                E column = pairs[i].keyColumn();
+                Object value = SQLInputFilter.filterBoundInput(pairs[i].keyValue());
+
+                if (!column.getType().getTypeClass().isInstance(value)) {
+                    throwInputError(column, value);
+                    return false;
+                }
+                values[i] = value;
+            }
+            TableMetadata<E> metadata = getInstance().metadata();
+            List<E> columns = columnsOf(pairs);
+            String query = metadata.template("existsByKeyAndAnyValues", List.of(keyColumn, columns), () ->
+                    "SELECT 1 FROM " + metadata.tableName() + " WHERE " + keyColumn.name() + " = ? AND (" + TableMetadata.join(columns, " = ?", " OR ") + " ) LIMIT 1");
+
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                setParameter(prepStatement, 1, keyValue);
+                for (int i = 0; i < values.length; i++) {
+                    setParameter(prepStatement, i + 2, values[i]);
+                }
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    return rs.next();
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return false;
+        }
+    }
+
+
+    /**
+     * Gets Specified Data from Database
+     * @return List of Table Record
+     */
+    default Optional<List<R>> getByKey(E keyColumn, Object keyValue) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            Object value = keyValue;
+            return keyColumn == sharding.shardColumn()
+                    ? onShard(sharding, value, () -> getByKey(keyColumn, value), Optional.empty())
+                    : concatShards(sharding, () -> getByKey(keyColumn, value));
+        }
+        try {
+            keyValue = SQLInputFilter.filterBoundInput(keyValue); // Filter SQL Injection
+            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                throwInputError(keyColumn, keyValue);
+                return Optional.empty();
+            }
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(getInstance().metadata().selectBy(keyColumn))) {
+                setParameter(prepStatement, 1, keyValue);
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    List<R> objects = new ArrayList<>();
+                    while (rs.next()) {
+                        objects.add(getInstance().recordMapper().map(rs, 0));
+                    }
+                    return Optional.of(objects);
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets Specified Data from Database
+     * @return List of Table Record
+     */
+    default Optional<List<R>> getAll() {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return concatShards(sharding, this::getAll);
+        }
+        try {
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(getInstance().metadata().selectAll())) {
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    List<R> objects = new ArrayList<>();
+                    while (rs.next()) {
+                        objects.add(getInstance().recordMapper().map(rs, 0));
+                    }
+                    return Optional.of(objects);
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+
+
+
+
+
+    /**
+     * Streams Specified Data from Database row by row instead of loading it into memory.
+     * The Stream holds a Connection until it is closed, use it in a try-with-resources block.
+     * @return Lazily populated Stream of Table Records, empty if an error occurs
+     */
+    default Stream<R> streamByKey(E keyColumn, Object keyValue) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            Object value = keyValue;
+            return keyColumn == sharding.shardColumn()
+                    ? onShard(sharding, value, () -> streamByKey(keyColumn, value), Stream.empty())
+                    : streamShards(sharding, () -> streamByKey(keyColumn, value));
+        }
+        PooledConnection connection = null;
+        try {
+            keyValue = SQLInputFilter.filterBoundInput(keyValue); // Filter SQL Injection
+            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                throwInputError(keyColumn, keyValue);
+                return Stream.empty();
+            }
+            connection = SQL.borrowReadConnection();
+            PreparedStatement prepStatement = InterDefinitions.prepareStreamingStatement(connection.get(), getInstance().metadata().selectBy(keyColumn));
+            setParameter(prepStatement, 1, keyValue);
+            return InterDefinitions.streamResults(connection, prepStatement, rs -> getInstance().recordMapper().map(rs, 0));
+        }
+        catch (Exception e) {
+            if (connection != null) connection.close();
+            throwDBError(e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Streams all Data of the Table row by row instead of loading it into memory.
+     * The Stream holds a Connection until it is closed, use it in a try-with-resources block.
+     * @return Lazily populated Stream of Table Records, empty if an error occurs
+     */
+    default Stream<R> streamAll() {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return streamShards(sharding, this::streamAll);
+        }
+        PooledConnection connection = null;
+        try {
+            connection = SQL.borrowReadConnection();
+            PreparedStatement prepStatement = InterDefinitions.prepareStreamingStatement(connection.get(), getInstance().metadata().selectAll());
+            return InterDefinitions.streamResults(connection, prepStatement, rs -> getInstance().recordMapper().map(rs, 0));
+        }
+        catch (Exception e) {
+            if (connection != null) connection.close();
+            throwDBError(e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Gets every x-th Row ordered by orderColumn, up to limit Rows.
+     * Only the first x * limit Rows in index order are read instead of numbering the whole Table.
+     * For walking through a whole Table use {@link QueryBuilder.RowQuery#paginate(int)}.
+     * @return List of Table Records
+     */
+    default Optional<List<R>> getEveryXRow(E orderColumn,Order order,int x,int limit) {
+        requireUnsharded("getEveryXRow");
+        try {
+            if (x < 1 || limit < 1) {
+               throw new InvalidParameterException("Invalid value for x: "+ x+", expected: >= 1");
+            }
+            TableMetadata<E> metadata = getInstance().metadata();
+            String query = metadata.template("getEveryXRow", List.of(orderColumn, order), () -> {
+                String orderClause = Stream.concat(Stream.of(orderColumn), metadata.keyColumns().stream().filter(p -> p != orderColumn))
+                        .map(p -> p.name() + " " + order.sql)
+                        .collect(Collectors.joining(", "));
+                return "SELECT * FROM (SELECT scanned.*, ROW_NUMBER() OVER (ORDER BY " + orderClause + ") AS row_num FROM " +
+                        "(" + metadata.selectAll() + " ORDER BY " + orderClause + " LIMIT ?) scanned) numbered " +
+                        "WHERE row_num % ? = 0 ORDER BY row_num LIMIT ?";
+            });
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                prepStatement.setLong(1, (long) x * limit);
+                prepStatement.setInt(2, x);
+                prepStatement.setInt(3, limit);
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    List<R> objects = new ArrayList<>();
+                    while (rs.next()) {
+                        objects.add(getInstance().recordMapper().map(rs, 0));
+                    }
+                    return Optional.of(objects);
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+
+
+
+
+    /**
+     * Gets Specified Data from Database.
+     * If the Table enables {@link Table#batchLoading()}, concurrent lookups are coalesced into one IN query,
+     * if it enables {@link Table#singleFlightReads()}, concurrent lookups of the same key share one query.
+     * Lookups by the primary key are answered from the {@link Table#entityCaching() entity cache} if it is enabled.
+     * @return First Table Record
+     */
+    default Optional<R> getFirstByKey(E keyColumn, Object keyValue) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            Object value = keyValue;
+            return keyColumn == sharding.shardColumn()
+                    ? onShard(sharding, value, () -> getFirstByKey(keyColumn, value), Optional.empty())
+                    : firstOfShards(sharding, () -> getFirstByKey(keyColumn, value));
+        }
+        try {
+            keyValue = SQLInputFilter.filterBoundInput(keyValue); // Filter SQL Injection
+            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                throwInputError(keyColumn, keyValue);
+                return Optional.empty();
+            }
+            Object filteredValue = keyValue;
+            return readCached(cacheKey(keyColumn, filteredValue), () -> {
+                BatchLoader<R> batchLoader = batchLoader(keyColumn);
+                if (batchLoader != null) {
+                    return batchLoader.load(filteredValue).join();
+                }
+                String query = getInstance().metadata().selectFirstBy(keyColumn);
+                return readShared(query, List.of(filteredValue), () -> {
+                    try (PooledConnection connection = SQL.borrowReadConnection();
+                         PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                        setParameter(prepStatement, 1, filteredValue);
+                        try (ResultSet rs = prepStatement.executeQuery()) {
+                            if (rs.next()) {
+                                return Optional.of(getInstance().recordMapper().map(rs, 0));
+                            }
+                            return Optional.empty();
+                        }
+                    }
+                }, row -> row);
+            });
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets Specified Data from Database
+     * @return Returns List of Column Type Objects as List
+     */
+    default <T> Optional<T> getFirstColumnByKey(E keyColumn, Object keyValue, E returnColumn) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            Object value = keyValue;
+            return keyColumn == sharding.shardColumn()
+                    ? onShard(sharding, value, () -> getFirstColumnByKey(keyColumn, value, returnColumn), Optional.empty())
+                    : firstOfShards(sharding, () -> getFirstColumnByKey(keyColumn, value, returnColumn));
+        }
+        try {
+            keyValue = SQLInputFilter.filterBoundInput(keyValue); // Filter SQL Injection
+            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                throwInputError(keyColumn, keyValue);
+                return Optional.empty();
+            }
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(getInstance().metadata().selectFirstColumnBy(keyColumn, returnColumn))) {
+                setParameter(prepStatement, 1, keyValue);
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    if (rs.next()) {
+                        return (Optional<T>) Optional.of(getTypedValue(rs, 1, returnColumn));
+                    }
+                    return Optional.empty();
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the Rows whose keyColumn matches one of the values, with one query per chunk of values instead of one per value.
+     * Values are bound as parameters of an {@code IN (?, ...)} list, UUIDs as BINARY(16).
+     * Rows are matched to the requested values by the database with the collation of keyColumn, so the map is keyed by the
+     * values as passed, also if the stored value differs e.g. in case. Values that are equal under the collation but not by
+     * equals, e.g. "abc" and "ABC" on a case-insensitive column, share one Row that is only mapped to the first of them.
+     * @param keyColumn The column to filter by
+     * @param values The values to look up, duplicates are queried once
+     * @return Map of each found value to the first Row with that value, values without a Row are absent
+     * @see #getByKeyIn(Enum, Collection, int)
+     */
+    default Optional<Map<Object, R>> getByKeyIn(E keyColumn, Collection<?> values) {
+        return getByKeyIn(keyColumn, values, DEFAULT_IN_CHUNK_SIZE);
+    }
+
+    /**
+     * Gets the Rows whose keyColumn matches one of the values, with one query per chunk of values.
+     * @param keyColumn The column to filter by
+     * @param values The values to look up, duplicates are queried once
+     * @param chunkSize Maximum number of values per query
+     * @return Map of each found value to the first Row with that value, values without a Row are absent
+     */
+    default Optional<Map<Object, R>> getByKeyIn(E keyColumn, Collection<?> values, int chunkSize) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return inShards(sharding, keyColumn, values, shardValues -> getByKeyIn(keyColumn, shardValues, chunkSize), (first, second) -> first);
+        }
+        try {
+            List<Object> keys = inValues(keyColumn, values, chunkSize);
+            if (keys == null) return Optional.empty();
+            TableMetadata<E> metadata = getInstance().metadata();
+            RecordMapper<R> mapper = getInstance().recordMapper();
+            Map<Object, R> rows = new HashMap<>();
+            queryIn(keys, chunkSize, size -> metadata.template("getByKeyIn", List.of(keyColumn, size), () ->
+                    "SELECT " + inFieldIndex(keyColumn, size) + ", " + metadata.columnList() + " FROM " + metadata.tableName() +
+                    " WHERE " + keyColumn.name() + " IN (" + "?, ".repeat(size - 1) + "?)"), rs -> mapper.map(rs, 1), rows);
+            return Optional.of(rows);
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the returnColumn of the Rows whose keyColumn matches one of the values, with one query per chunk of values.
+     * Rows are matched to the requested values like in {@link #getByKeyIn(Enum, Collection)}.
+     * @param keyColumn The column to filter by
+     * @param values The values to look up, duplicates are queried once
+     * @param returnColumn The column to return
+     * @return Map of each found value to the returnColumn of the first Row with that value, values without a Row are absent
+     * @see #getFirstColumnByKeyIn(Enum, Collection, Enum, int)
+     */
+    default <T> Optional<Map<Object, T>> getFirstColumnByKeyIn(E keyColumn, Collection<?> values, E returnColumn) {
+        return getFirstColumnByKeyIn(keyColumn, values, returnColumn, DEFAULT_IN_CHUNK_SIZE);
+    }
+
+    /**
+     * Gets the returnColumn of the Rows whose keyColumn matches one of the values, with one query per chunk of values.
+     * @param keyColumn The column to filter by
+     * @param values The values to look up, duplicates are queried once
+     * @param returnColumn The column to return
+     * @param chunkSize Maximum number of values per query
+     * @return Map of each found value to the returnColumn of the first Row with that value, values without a Row are absent
+     */
+    default <T> Optional<Map<Object, T>> getFirstColumnByKeyIn(E keyColumn, Collection<?> values, E returnColumn, int chunkSize) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return inShards(sharding, keyColumn, values, shardValues -> getFirstColumnByKeyIn(keyColumn, shardValues, returnColumn, chunkSize), (first, second) -> first);
+        }
+        try {
+            List<Object> keys = inValues(keyColumn, values, chunkSize);
+            if (keys == null) return Optional.empty();
+            TableMetadata<E> metadata = getInstance().metadata();
+            Map<Object, T> results = new HashMap<>();
+            queryIn(keys, chunkSize, size -> metadata.template("getFirstColumnByKeyIn", List.of(keyColumn, returnColumn, size), () ->
+                    "SELECT " + inFieldIndex(keyColumn, size) + ", " + returnColumn.name() + " FROM " + metadata.tableName() +
+                    " WHERE " + keyColumn.name() + " IN (" + "?, ".repeat(size - 1) + "?)"), rs -> (T) getTypedValue(rs, 2, returnColumn), results);
+            return Optional.of(results);
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checks for each value if a Row with that value in keyColumn exists, with one query per chunk of values.
+     * Rows are matched to the requested values like in {@link #getByKeyIn(Enum, Collection)}.
+     * @param keyColumn The column to filter by
+     * @param values The values to check, duplicates are queried once
+     * @return Map of every value to true if a Row exists, false otherwise
+     * @see #existsByKeyIn(Enum, Collection, int)
+     */
+    default Optional<Map<Object, Boolean>> existsByKeyIn(E keyColumn, Collection<?> values) {
+        return existsByKeyIn(keyColumn, values, DEFAULT_IN_CHUNK_SIZE);
+    }
+
+    /**
+     * Checks for each value if a Row with that value in keyColumn exists, with one query per chunk of values.
+     * @param keyColumn The column to filter by
+     * @param values The values to check, duplicates are queried once
+     * @param chunkSize Maximum number of values per query
+     * @return Map of every value to true if a Row exists, false otherwise
+     */
+    default Optional<Map<Object, Boolean>> existsByKeyIn(E keyColumn, Collection<?> values, int chunkSize) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return inShards(sharding, keyColumn, values, shardValues -> existsByKeyIn(keyColumn, shardValues, chunkSize), Boolean::logicalOr);
+        }
+        try {
+            List<Object> keys = inValues(keyColumn, values, chunkSize);
+            if (keys == null) return Optional.empty();
+            TableMetadata<E> metadata = getInstance().metadata();
+            Map<Object, Boolean> found = new HashMap<>();
+            queryIn(keys, chunkSize, size -> metadata.template("existsByKeyIn", List.of(keyColumn, size), () ->
+                    "SELECT DISTINCT " + inFieldIndex(keyColumn, size) + " FROM " + metadata.tableName() +
+                    " WHERE " + keyColumn.name() + " IN (" + "?, ".repeat(size - 1) + "?)"), rs -> Boolean.TRUE, found);
+            Map<Object, Boolean> results = new HashMap<>();
+            for (Object key : keys) {
+                results.put(key, found.containsKey(key));
+            }
+            return Optional.of(results);
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the first or last value from in the database, based on the orderColumn.
+     * @param orderColumn The column to filter by
+     * @param order The order (ascending or descending)
+     * @return Returns a single table record as an Object
+     */
+    default Optional<R> getByOrder(E orderColumn, Order order) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return firstOfShards(sharding, orderColumn, order, () -> getByOrder(orderColumn, order));
+        }
+        try {
+            String query = getInstance().metadata().selectFirstByOrder(orderColumn, order);
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(getInstance().recordMapper().map(rs, 0));
+                    } else {
+                        return Optional.empty();
+                    }
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the first or last value from in the database, based on the Key.
+     * @param keyColumn The column to filter by
+     * @param keyValue The value to filter by
+     * @param orderColumn Column to order
+     * @param order The order (ascending or descending)
+     * @return Returns a single table record as an Object
+     */
+    default Optional<R> getByOrderAndKey(E keyColumn,Object keyValue,E orderColumn, Order order) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            Object value = keyValue;
+            return keyColumn == sharding.shardColumn()
+                    ? onShard(sharding, value, () -> getByOrderAndKey(keyColumn, value, orderColumn, order), Optional.empty())
+                    : firstOfShards(sharding, orderColumn, order, () -> getByOrderAndKey(keyColumn, value, orderColumn, order));
+        }
+        try {
+            keyValue = SQLInputFilter.filterBoundInput(keyValue); // Filter SQL Injection
+            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                throwInputError(keyColumn, keyValue);
+                return Optional.empty();
+            }
+            TableMetadata<E> metadata = getInstance().metadata();
+            String query = metadata.template("getByOrderAndKey", List.of(keyColumn, orderColumn, order), () ->
+                    metadata.selectBy(keyColumn) + " ORDER BY " + orderColumn.name() + " " + order.sql + " LIMIT 1");
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                setParameter(prepStatement, 1, keyValue);
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(getInstance().recordMapper().map(rs, 0));
+                    } else {
+                        return Optional.empty();
+                    }
+                }
+            }
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the first or last value from in the database, based on the Keys.
+     * @param orderColumn Column to order
+     * @param order The order (ascending or descending)
+     * @return Returns a single table record as an Object
+     */
+    default Optional<R> getByOrderAndKeys(E orderColumn, Order order,ColumnValue<E>... keyPairs) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            ColumnValue<E> shardPair = shardPair(sharding, keyPairs);
+            return shardPair != null
+                    ? onShard(sharding, shardPair.keyValue(), () -> getByOrderAndKeys(orderColumn, order, keyPairs), Optional.empty())
+                    : firstOfShards(sharding, orderColumn, order, () -> getByOrderAndKeys(orderColumn, order, keyPairs));
+        }
+        try {
+            if (keyPairs == null || keyPairs.length == 0) {
+                throw new InvalidParameterException("At least one column-value pair must be provided");
+            }
+            // Validate all parameters upfront
+            for (ColumnValue<E> pair : keyPairs) {
+                if (!pair.keyColumn().getType().getTypeClass().isInstance(pair.keyValue())) {
+                    throwInputError(pair.keyColumn(), pair.keyValue());
+                    return Optional.empty();
+                }
+            }
+            TableMetadata<E> metadata = getInstance().metadata();
+            List<E> columns = columnsOf(keyPairs);
+            String query = metadata.template("getByOrderAndKeys", List.of(columns, orderColumn, order), () ->
+                    metadata.selectAll() + " WHERE " + TableMetadata.join(columns, " = ?", " AND ") + " ORDER BY " + orderColumn.name() + " " + order.sql + " LIMIT 1");
+            return executeQuery(query, (ColumnValue<E>[]) keyPairs);
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets value from in the database, based on the Keys specified.
+     * @return Returns a single table record as an Object
+     */
+    default Optional<R> getByKeys(ColumnValue<E>... keyPairs) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            ColumnValue<E> shardPair = shardPair(sharding, keyPairs);
+            return shardPair != null
+                    ? onShard(sharding, shardPair.keyValue(), () -> getByKeys(keyPairs), Optional.empty())
+                    : firstOfShards(sharding, () -> getByKeys(keyPairs));
+        }
+        try {
+            if (keyPairs == null || keyPairs.length == 0) {
+                throw new InvalidParameterException("At least one column-value pair must be provided");
+            }
+            // Validate all parameters upfront
+            for (ColumnValue<E> pair : keyPairs) {
+                if (!pair.keyColumn().getType().getTypeClass().isInstance(pair.keyValue())) {
+                    throwInputError(pair.keyColumn(), pair.keyValue());
+                    return Optional.empty();
+                }
+            }
+            TableMetadata<E> metadata = getInstance().metadata();
+            List<E> columns = columnsOf(keyPairs);
+            String query = metadata.template("getByKeys", columns, () ->
+                    metadata.selectAll() + " WHERE " + TableMetadata.join(columns, " = ?", " AND ") + " LIMIT 1");
+            return readCached(cacheKey(keyPairs), () -> executeQuery(query, (ColumnValue<E>[]) keyPairs));
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes a row from the database based on the provided key-value pairs.
+     * @param keyPairs The column-value pairs to match for deletion
+     * @return true if a row was deleted, false otherwise
+     */
+    default boolean deleteByKeys(ColumnValue<E>... keyPairs) {
+        if (!flushWriteBehind()) return false;
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            ColumnValue<E> shardPair = shardPair(sharding, keyPairs);
+            return shardPair != null
+                    ? onShard(sharding, shardPair.keyValue(), () -> deleteByKeys(keyPairs), false)
+                    : anyShard(sharding, () -> deleteByKeys(keyPairs));
+        }
+        try {
+            if (keyPairs == null || keyPairs.length == 0) {
+                throw new InvalidParameterException("At least one column-value pair must be provided");
+            }
+            // Validate all parameters upfront
+            for (ColumnValue<E> pair : keyPairs) {
+                if (!pair.keyColumn().getType().getTypeClass().isInstance(pair.keyValue())) {
+                    throwInputError(pair.keyColumn(), pair.keyValue());
+                    return false;
+                }
+            }
+            TableMetadata<E> metadata = getInstance().metadata();
+            List<E> columns = columnsOf(keyPairs);
+            String query = metadata.template("deleteByKeys", columns, () ->
+                    "DELETE FROM " + metadata.tableName() + " WHERE " + TableMetadata.join(columns, " = ?", " AND "));
+            Object cacheKey = cacheKey(keyPairs);
+            try (PooledConnection connection = SQL.borrowConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                for (int i = 0; i < keyPairs.length; i++) {
+                    setParameter(prepStatement, i + 1, SQLInputFilter.filterBoundInput(keyPairs[i].keyValue()));
+                }
+                try {
+                    return prepStatement.executeUpdate() > 0;
+                } finally {
+                    invalidateCache(cacheKey); // Also after a failed statement, it may have been applied
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            throwDBError(e);
+            return false;
+        }
+    }
+
+
+    /**
+     * Gets Specified Data from Database
+     * @param keyColumn
+     * @param keyValue
+     * @param returnColumn
+     * @return Returns List of Column Type Objects as List
+     */
+    default <T> Optional<List<T>> getColumnByValue(E keyColumn, Object keyValue, E returnColumn) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            Object value = keyValue;
+            return keyColumn == sharding.shardColumn()
+                    ? onShard(sharding, value, () -> getColumnByValue(keyColumn, value, returnColumn), Optional.empty())
+                    : concatShards(sharding, () -> getColumnByValue(keyColumn, value, returnColumn));
+        }
+        try {
+            keyValue = SQLInputFilter.filterBoundInput(keyValue); // Filter SQL Injection
+            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                throwInputError(keyColumn, keyValue);
+                return Optional.empty();
+            }
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(getInstance().metadata().selectColumnBy(keyColumn, returnColumn))) {
+                setParameter(prepStatement, 1, keyValue);
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    List<Object> resultList = new ArrayList<>();
+                    while (rs.next()) {
+                        resultList.add(getTypedValue(rs, 1, returnColumn));
+                    }
+                    return Optional.of((List<T>) resultList);
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+
+    /**
+     * Gets the first or last value from the specified column in the database, based on the keyColumn.
+     * @param keyColumn The column to order by
+     * @param returnColumn The column to return
+     * @param order The order (ascending or descending)
+     * @return Returns a single column value as an Object
+     */
+    default Optional<Object> getColumnByOrder(E keyColumn, E returnColumn, Order order) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return getByOrder(keyColumn, order).map(record -> valueOf(record, returnColumn));
+        }
+        try {
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(getInstance().metadata().template("getColumnByOrder", List.of(keyColumn, returnColumn, order), () ->
+                         "SELECT " + returnColumn.name() + " FROM " + getInstance().tableName() + " ORDER BY " + keyColumn.name() + " " + order.sql + " LIMIT 1"));
+                 ResultSet rs = prepStatement.executeQuery()) {
+
+                if (rs.next()) {
+                    return Optional.of(getTypedValue(rs, 1, returnColumn));
+                } else {
+                    return Optional.empty();
+                }
+            }
+        }
+        catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+
+    /**
+     * Gets the first or last value from in the database, based on the Key.
+     * @param keyColumn The column to filter by
+     * @param keyValue The value to filter by
+     * @param orderColumn Column to order
+     * @param order The order (ascending or descending)
+     * @return Returns a Column
+     */
+    default Optional<Object> getColumnByOrderAndKey(E keyColumn,Object keyValue,E orderColumn, Order order,E returnColumn) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            Object value = keyValue;
+            return keyColumn == sharding.shardColumn()
+                    ? onShard(sharding, value, () -> getColumnByOrderAndKey(keyColumn, value, orderColumn, order, returnColumn), Optional.empty())
+                    : getByOrderAndKey(keyColumn, value, orderColumn, order).map(record -> valueOf(record, returnColumn));
+        }
+        try {
+            keyValue = SQLInputFilter.filterBoundInput(keyValue); // Filter SQL Injection
+            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                throwInputError(keyColumn, keyValue);
+                return Optional.empty();
+            }
+            TableMetadata<E> metadata = getInstance().metadata();
+            String query = metadata.template("getColumnByOrderAndKey", List.of(keyColumn, orderColumn, order, returnColumn), () ->
+                    metadata.selectColumnBy(keyColumn, returnColumn) + " ORDER BY " + orderColumn.name() + " " + order.sql + " LIMIT 1");
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                setParameter(prepStatement, 1, keyValue);
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(getTypedValue(rs, 1, returnColumn));
+                    } else {
+                        return Optional.empty();
+                    }
+                }
+            }
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the first or last value from in the database, based on the Keys.
+     * @param orderColumn Column to order
+     * @param order The order (ascending or descending)
+     * @return Returns a Column
+     */
+    default Optional<Object> getColumnByOrderAndKeys(E orderColumn, Order order,E returnColumn,ColumnValue<E>... keyPairs) {
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            ColumnValue<E> shardPair = shardPair(sharding, keyPairs);
+            return shardPair != null
+                    ? onShard(sharding, shardPair.keyValue(), () -> getColumnByOrderAndKeys(orderColumn, order, returnColumn, keyPairs), Optional.empty())
+                    : getByOrderAndKeys(orderColumn, order, keyPairs).map(record -> valueOf(record, returnColumn));
+        }
+        try {
+            if (keyPairs == null || keyPairs.length == 0) {
+                throw new InvalidParameterException("At least one column-value pair must be provided");
+            }
+            // Validate all parameters upfront
+            for (ColumnValue<E> pair : keyPairs) {
+                if (!pair.keyColumn().getType().getTypeClass().isInstance(pair.keyValue())) {
+                    throwInputError(pair.keyColumn(), pair.keyValue());
+                    return Optional.empty();
+                }
+            }
+            TableMetadata<E> metadata = getInstance().metadata();
+            List<E> columns = columnsOf(keyPairs);
+            String query = metadata.template("getColumnByOrderAndKeys", List.of(columns, orderColumn, order, returnColumn), () ->
+                    "SELECT " + returnColumn.name() + " FROM " + metadata.tableName() + " WHERE " + TableMetadata.join(columns, " = ?", " AND ") +
+                    " ORDER BY " + orderColumn.name() + " " + order.sql + " LIMIT 1");
+
+            try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                for (int i = 0; i < keyPairs.length; i++) {
+                    setParameter(prepStatement, i + 1, SQLInputFilter.filterBoundInput(keyPairs[i].keyValue()));
+                }
+                try (ResultSet rs = prepStatement.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(getTypedValue(rs, 1, returnColumn));
+                    } else {
+                        return Optional.empty();
+                    }
+                }
+            }
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Updates specified Rows with specified Data
+     * @return If Success returns True
+     */
+    default boolean update(E keyColumn, Object keyValue, E updateColumn, Object updateValue) {
+        if (!flushWriteBehind()) return false;
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            if (updateColumn == sharding.shardColumn()) {
+                throw new IllegalArgumentException("The shard column " + updateColumn + " can not be updated");
+            }
+            Object value = keyValue;
+            return keyColumn == sharding.shardColumn()
+                    ? onShard(sharding, value, () -> update(keyColumn, value, updateColumn, updateValue), false)
+                    : anyShard(sharding, () -> update(keyColumn, value, updateColumn, updateValue));
+        }
+        try {
+            keyValue = SQLInputFilter.filterBoundInput(keyValue);
+            Object cacheKey = updateColumn.isKey() ? null : cacheKey(keyColumn, keyValue);
+            try (PooledConnection connection = SQL.borrowConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(getInstance().metadata().updateColumnBy(keyColumn, updateColumn))) {
+                setParameter(preparedStatement, 1, SQLInputFilter.filterBoundInput(updateValue));
+                setParameter(preparedStatement, 2, keyValue);
+                try {
+                    return preparedStatement.executeUpdate() > 0;
+                } finally {
+                    invalidateCache(cacheKey);
+                }
+            }
+        }  catch (Exception e) {
+            throwDBError(e);
+            return false;
+        }
+    }
+
+
+    /**
+     * Updates the first row based on the specified key column and order, updating the updateColumn with updateValue.
+     * @param keyColumn The column to order by
+     * @param order The order (ascending or descending)
+     * @param updateColumn The column to update
+     * @param updateValue The value to update the column with
+     * @return If success, returns true
+     */
+    default boolean updateByOrder(E keyColumn, Order order, E updateColumn, Object updateValue) {
+        if (!flushWriteBehind()) return false;
+        requireUnsharded("updateByOrder");
+        try {
+            try (PooledConnection connection = SQL.borrowConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(getInstance().metadata().template("updateByOrder", List.of(keyColumn, updateColumn, order), () ->
+                         String.format("UPDATE %s SET %s = ? WHERE %s = (SELECT %s FROM %s ORDER BY %s %s LIMIT 1)",
+                                 getInstance().tableName(), updateColumn.name(), keyColumn.name(), keyColumn.name(), getInstance().tableName(), keyColumn.name(), order.sql)))) {
+                setParameter(preparedStatement, 1, SQLInputFilter.filterBoundInput(updateValue));
+                try {
+                    return preparedStatement.executeUpdate() > 0;
+                } finally {
+                    invalidateCache(null);
+                }
+            }
+        }  catch (Exception e) {
+            throwDBError(e);
+            return false;
+        }
+    }
+
+    /**
+     * Updates Rows by specified Key Values in Record with Data of Record
+     * @param record
+     * @return If Success returns True
+     * @throws Exception
+     */
+    default boolean update(R record) {
+        if (!flushWriteBehind()) return false;
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return onShardOf(sharding, record, () -> update(record), false);
+        }
+        try {
+            R filteredRecord = SQLInputFilter.filterBoundInput(record); // Filter SQL Injection
+            TableMetadata<E> metadata = getInstance().metadata();
+            List<E> properties = metadata.columns();
+            return writeThrough(filteredRecord, () -> {
+                try (PooledConnection connection = SQL.borrowConnection();
+                     PreparedStatement prepStatement = connection.prepareStatement(metadata.updateRecord())) {
+                    int index = setParameters(prepStatement, filteredRecord, properties, false);
+                    setParameters(prepStatement, filteredRecord, properties, true, index);
+                    return prepStatement.executeUpdate() > 0;
+                }
+            });
+        }  catch (Exception e) {
+            throwDBError(e);
+            return false;
+        }
+    }
+
+    /**
+     * Updates only the columns that differ between original and modified, e.g. after {@link DatabaseRecord#editField(Enum, Object)}.
+     * The statement for every set of changed columns is rendered once and reused.
+     * @param original The Record as read from the Database
+     * @param modified The Record with the new values, with the same primary key as original
+     * @return If Success returns True, also if no column changed and nothing had to be written.
+     *         False if the primary keys of the records differ.
+     */
+    default boolean update(R original, R modified) {
+        if (original == null || modified == null) {
+            throw new IllegalArgumentException("Original and modified record cannot be null");
+        }
+        if (!flushWriteBehind()) return false;
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return onShardOf(sharding, modified, () -> update(original, modified), false);
+        }
+        try {
+            R filteredOriginal = SQLInputFilter.filterBoundInput(original); // Filter SQL Injection
+            R filteredModified = SQLInputFilter.filterBoundInput(modified);
+            TableMetadata<E> metadata = getInstance().metadata();
+            if (metadata.keyColumns().isEmpty()) {
+                throw new IllegalArgumentException("No key properties to update by");
+            }
+            for (E keyColumn : metadata.keyColumns()) {
+                if (!Objects.deepEquals(getValueByName(filteredOriginal, keyColumn.name()), getValueByName(filteredModified, keyColumn.name()))) {
+                    throw new IllegalArgumentException("Primary key of the records differs in " + keyColumn.name());
+                }
+            }
+            List<E> changedColumns = new ArrayList<>();
+            for (E valueColumn : metadata.valueColumns()) {
+                if (!Objects.deepEquals(getValueByName(filteredOriginal, valueColumn.name()), getValueByName(filteredModified, valueColumn.name()))) {
+                    changedColumns.add(valueColumn);
+                }
+            }
+            if (changedColumns.isEmpty()) return true;
+            Object cacheKey = cacheKey(filteredModified);
+            String query = metadata.template("updateChanged", changedColumns, () ->
+                    "UPDATE " + getInstance().tableName() + " SET " + TableMetadata.join(changedColumns, " = ?", ", ")
+                            + " WHERE " + TableMetadata.join(metadata.keyColumns(), " = ?", " AND "));
+            try (PooledConnection connection = SQL.borrowConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+                int index = setParameters(prepStatement, filteredModified, changedColumns, 1);
+                setParameters(prepStatement, filteredModified, metadata.keyColumns(), index);
+                return prepStatement.executeUpdate() > 0;
+            } finally {
+                invalidateCache(cacheKey); // Columns left out keep the values of the Database, which original may not have matched
+            }
+        } catch (Exception e) {
+            throwDBError(e);
+            return false;
+        }
+    }
+
+    /**
+     * Upsert's entire Record into Database
+     * @param record
+     * @return If Success returns True
+     * @throws Exception
+     */
+    default boolean upsert(R record) {
+        WriteBehindBuffer<R> buffer = writeBehindBuffer();
+        if (buffer != null && buffered(buffer, record)) {
+            return true;
+        }
+        if (!flushWriteBehind()) return false; // A buffered Record of the key would overwrite this one later
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return onShardOf(sharding, record, () -> upsert(record), false);
+        }
+        try {
+            R filteredRecord = SQLInputFilter.filterBoundInput(record); // Filter SQL Injection
+            TableMetadata<E> metadata = getInstance().metadata();
+            return writeThrough(filteredRecord, () -> {
+                try (PooledConnection connection = SQL.borrowConnection();
+                     PreparedStatement prepStatement = connection.prepareStatement(metadata.upsert())) {
+                    setParameters(prepStatement, filteredRecord, metadata.columns());
+                    return prepStatement.executeUpdate() > 0;
+                }
+            });
+        }  catch (Exception e) {
+            throwDBError(e);
+            return false;
+        }
+
+    }
+
+
+    /*
+     * Async companions. Each call runs on the executor of SQL.Service (virtual threads by default),
+     * concurrent database access is bounded by the Connection Pool.
+     */
+
+    /**
+     * Async variant of {@link #countByValue(Enum, Object)}
+     */
+    default CompletableFuture<Integer> countByValueAsync(E keyColumn, Object keyValue) {
+        return SQL.supplyAsync(() -> countByValue(keyColumn, keyValue));
+    }
+
+    /**
+     * Async variant of {@link #existsByKey(Enum, Object)}
+     */
+    default CompletableFuture<Boolean> existsByKeyAsync(E keyColumn, Object keyValue) {
+        return SQL.supplyAsync(() -> existsByKey(keyColumn, keyValue));
+    }
+
+    /**
+     * Async variant of {@link #existsByKeys(ColumnValue[])}
+     */
+    default CompletableFuture<Boolean> existsByKeysAsync(ColumnValue<E>... pairs) {
+        return SQL.supplyAsync(() -> existsByKeys(pairs));
+    }
+
+    /**
+     * Async variant of {@link #existsByAnyKeys(ColumnValue[])}
+     */
+    default CompletableFuture<Boolean> existsByAnyKeysAsync(ColumnValue<E>... pairs) {
+        return SQL.supplyAsync(() -> existsByAnyKeys(pairs));
+    }
+
+    /**
+     * Async variant of {@link #getByKey(Enum, Object)}
+     */
+    default CompletableFuture<Optional<List<R>>> getByKeyAsync(E keyColumn, Object keyValue) {
+        return SQL.supplyAsync(() -> getByKey(keyColumn, keyValue));
+    }
+
+    /**
+     * Async variant of {@link #getAll()}
+     */
+    default CompletableFuture<Optional<List<R>>> getAllAsync() {
+        return SQL.supplyAsync(this::getAll);
+    }
+
+    /**
+     * Async variant of {@link #getFirstByKey(Enum, Object)}
+     */
+    default CompletableFuture<Optional<R>> getFirstByKeyAsync(E keyColumn, Object keyValue) {
+        BatchLoader<R> batchLoader = batchLoader(keyColumn);
+        if (batchLoader != null) {
+            try {
+                Object filteredValue = SQLInputFilter.filterBoundInput(keyValue); // Filter SQL Injection
+                if (!keyColumn.getType().getTypeClass().isInstance(filteredValue)) {
+                    throwInputError(keyColumn, filteredValue);
+                }
+                EntityCache<R> cache = getInstance().getEntityCache();
+                Object cacheKey = cacheKey(keyColumn, filteredValue);
+                if (cacheKey == null) {
+                    return batchLoader.load(filteredValue);
+                }
+                R cached = cache.get(cacheKey);
+                if (cached != null) {
+                    return CompletableFuture.completedFuture(Optional.of(cached));
+                }
+                long stamp = cache.stamp(cacheKey);
+                return batchLoader.load(filteredValue).thenApply(row -> {
+                    row.ifPresent(record -> cache.put(cacheKey, record, stamp));
+                    return row;
+                });
+            }
+            catch (Exception e) {
+                throwDBError(e);
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+        }
+        return SQL.supplyAsync(() -> getFirstByKey(keyColumn, keyValue));
+    }
+
+    /**
+     * Async variant of {@link #getFirstColumnByKey(Enum, Object, Enum)}
+     */
+    default <T> CompletableFuture<Optional<T>> getFirstColumnByKeyAsync(E keyColumn, Object keyValue, E returnColumn) {
+        return SQL.supplyAsync(() -> getFirstColumnByKey(keyColumn, keyValue, returnColumn));
+    }
+
+    /**
+     * Async variant of {@link #getByKeyIn(Enum, Collection, int)}
+     */
+    default CompletableFuture<Optional<Map<Object, R>>> getByKeyInAsync(E keyColumn, Collection<?> values, int chunkSize) {
+        return SQL.supplyAsync(() -> getByKeyIn(keyColumn, values, chunkSize));
+    }
+
+    /**
+     * Async variant of {@link #getFirstColumnByKeyIn(Enum, Collection, Enum, int)}
+     */
+    default <T> CompletableFuture<Optional<Map<Object, T>>> getFirstColumnByKeyInAsync(E keyColumn, Collection<?> values, E returnColumn, int chunkSize) {
+        return SQL.supplyAsync(() -> getFirstColumnByKeyIn(keyColumn, values, returnColumn, chunkSize));
+    }
+
+    /**
+     * Async variant of {@link #existsByKeyIn(Enum, Collection, int)}
+     */
+    default CompletableFuture<Optional<Map<Object, Boolean>>> existsByKeyInAsync(E keyColumn, Collection<?> values, int chunkSize) {
+        return SQL.supplyAsync(() -> existsByKeyIn(keyColumn, values, chunkSize));
+    }
+
+    /**
+     * Async variant of {@link #getByKeys(ColumnValue[])}
+     */
+    default CompletableFuture<Optional<R>> getByKeysAsync(ColumnValue<E>... keyPairs) {
+        return SQL.supplyAsync(() -> getByKeys(keyPairs));
+    }
+
+    /**
+     * Async variant of {@link #getByOrderAndKeys(Enum, Order, ColumnValue[])}
+     */
+    default CompletableFuture<Optional<R>> getByOrderAndKeysAsync(E orderColumn, Order order, ColumnValue<E>... keyPairs) {
+        return SQL.supplyAsync(() -> getByOrderAndKeys(orderColumn, order, keyPairs));
+    }
+
+    /**
+     * Async variant of {@link #getColumnByValue(Enum, Object, Enum)}
+     */
+    default <T> CompletableFuture<Optional<List<T>>> getColumnByValueAsync(E keyColumn, Object keyValue, E returnColumn) {
+        return SQL.supplyAsync(() -> getColumnByValue(keyColumn, keyValue, returnColumn));
+    }
+
+    /**
+     * Async variant of {@link #deleteByKeys(ColumnValue[])}
+     */
+    default CompletableFuture<Boolean> deleteByKeysAsync(ColumnValue<E>... keyPairs) {
+        return SQL.supplyAsync(() -> deleteByKeys(keyPairs));
+    }
+
+    /**
+     * Async variant of {@link #update(Enum, Object, Enum, Object)}
+     */
+    default CompletableFuture<Boolean> updateAsync(E keyColumn, Object keyValue, E updateColumn, Object updateValue) {
+        return SQL.supplyAsync(() -> update(keyColumn, keyValue, updateColumn, updateValue));
+    }
+
+    /**
+     * Async variant of {@link #update(java.lang.Record)}
+     */
+    default CompletableFuture<Boolean> updateAsync(R record) {
+        return SQL.supplyAsync(() -> update(record));
+    }
+
+    /**
+     * Async variant of {@link #update(java.lang.Record, java.lang.Record)}
+     */
+    default CompletableFuture<Boolean> updateAsync(R original, R modified) {
+        return SQL.supplyAsync(() -> update(original, modified));
+    }
+
+    /**
+     * Async variant of {@link #upsert(java.lang.Record)}
+     */
+    default CompletableFuture<Boolean> upsertAsync(R record) {
+        return SQL.supplyAsync(() -> upsert(record));
+    }
+
+
+    /**
+     * Upsert's all Records into Database, using the default {@link BatchOptions}
+     * @return Results per written chunk
+     */
+    default List<BatchResult> upsertAll(Collection<R> records) {
+        return upsertAll(records, BatchOptions.defaults());
+    }
+
+    /**
+     * Upsert's all Records into Database with one prepared statement, split into chunks.
+     * Each chunk is sent in one round trip and committed on its own, a failed chunk is rolled back
+     * without affecting the others.
+     * @return Results per written chunk
+     */
+    default List<BatchResult> upsertAll(Collection<R> records, BatchOptions options) {
+        if (!flushWriteBehind()) return notWritten(records);
+        return writeAll(records, options, true, false);
+    }
+
+    /**
+     * Inserts all Records into Database, using the default {@link BatchOptions}
+     * @return Results per written chunk
+     */
+    default List<BatchResult> insertAll(Collection<R> records) {
+        return insertAll(records, BatchOptions.defaults());
+    }
+
+    /**
+     * Inserts all Records into Database with one prepared statement, split into chunks.
+     * Each chunk is sent in one round trip and committed on its own, a failed chunk is rolled back
+     * without affecting the others.
+     * @return Results per written chunk
+     */
+    default List<BatchResult> insertAll(Collection<R> records, BatchOptions options) {
+        if (!flushWriteBehind()) return notWritten(records);
+        return writeAll(records, options, false, false);
+    }
+
+    /**
+     * Async variant of {@link #upsertAll(Collection, BatchOptions)}
+     */
+    default CompletableFuture<List<BatchResult>> upsertAllAsync(Collection<R> records, BatchOptions options) {
+        return SQL.supplyAsync(() -> upsertAll(records, options));
+    }
+
+
+    /**
+     * Writes the Records in chunks. Every Record is filtered once per chunk, the filtered Records are bound and
+     * give the cache keys, and the caches are invalidated once per chunk.
+     * @param filtered true if the Records were already filtered, e.g. by the write-behind buffer
+     */
+    private List<BatchResult> writeAll(Collection<R> records, BatchOptions options, boolean upsert, boolean filtered) {
+        List<BatchResult> results = new ArrayList<>();
+        if (records == null || records.isEmpty()) return results;
+        if (options == null) {
+            throw new IllegalArgumentException("Batch options cannot be null");
+        }
+        Sharding<E> sharding = sharding();
+        if (sharding != null) {
+            return writeShards(sharding, records, shardRecords -> writeAll(shardRecords, options, upsert, filtered));
+        }
+        List<E> properties = getInstance().metadata().columns();
+        int chunkSize = options.multiRowValues() ? Math.min(options.chunkSize(), MAX_STATEMENT_PARAMETERS / properties.size()) : options.chunkSize();
+        try (PooledConnection connection = SQL.borrowConnection()) {
+            Connection con = connection.get();
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            boolean commitChunks = Transaction.current() == null;
+            try (PreparedStatement batchStatement = options.multiRowValues() ? null : connection.prepareStatement(buildInsertQuery(properties, 1, upsert))) {
+                Iterator<R> iterator = records.iterator();
+                int offset = 0;
+                while (iterator.hasNext()) {
+                    List<R> chunk = new ArrayList<>(Math.min(chunkSize, records.size() - offset));
+                    while (iterator.hasNext() && chunk.size() < chunkSize) {
+                        chunk.add(iterator.next());
+                    }
+                    List<R> filteredChunk = filtered ? chunk : filterChunk(chunk);
+                    if (filteredChunk == null) {
+                        results.add(new BatchResult(offset, chunk.size(), 0, false));
+                    } else {
+                        results.add(writeChunk(connection, batchStatement, filteredChunk, chunkSize, offset, properties, upsert, commitChunks));
+                        invalidateCacheKeys(cacheKeys(filteredChunk));
+                    }
+                    offset += chunk.size();
+                }
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        } catch (Exception e) {
+            throwDBError(e);
+        }
+        return results;
+    }
+
+    /**
+     * @return The filtered Records of the chunk, or null if a Record could not be filtered
+     */
+    private List<R> filterChunk(List<R> chunk) {
+        List<R> filteredChunk = new ArrayList<>(chunk.size());
+        try {
+            for (R record : chunk) {
+                filteredChunk.add(SQLInputFilter.filterBoundInput(record)); // Filter SQL Injection
+            }
+            return filteredChunk;
+        } catch (Exception e) {
+            throwDBError(e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes and commits one chunk of filtered Records, either as JDBC batch on batchStatement or, if batchStatement is null, as multi row INSERT.
+     * Inside a transaction the chunk is written behind a savepoint and committed with the transaction.
+     * Statements are prepared through the statement cache of the connection. A multi row INSERT of a chunk smaller than
+     * chunkSize is split into parts of power of two rows, so only a few statement shapes exist per table.
+     */
+    private BatchResult writeChunk(PooledConnection connection, PreparedStatement batchStatement, List<R> chunk, int chunkSize, int offset, List<E> properties, boolean upsert, boolean commit) {
+        Connection con = connection.get();
+        Savepoint savepoint = null;
+        try {
+            if (!commit) savepoint = con.setSavepoint();
+            int affectedRows = 0;
+            if (batchStatement != null) {
+                for (R record : chunk) {
+                    setParameters(batchStatement, record, properties);
+                    batchStatement.addBatch();
+                }
+                for (int count : batchStatement.executeBatch()) {
+                    if (count > 0) affectedRows += count;
+                }
+            } else {
+                for (int start = 0; start < chunk.size(); ) {
+                    int remaining = chunk.size() - start;
+                    int rows = remaining == chunkSize ? remaining : Integer.highestOneBit(remaining);
+                    try (PreparedStatement prepStatement = connection.prepareStatement(buildInsertQuery(properties, rows, upsert))) {
+                        int index = 1;
+                        for (R record : chunk.subList(start, start + rows)) {
+                            index = setParameters(prepStatement, record, properties, index);
+                        }
+                        affectedRows += prepStatement.executeUpdate();
+                    }
+                    start += rows;
+                }
+            }
+            if (commit) {
+                con.commit();
+            } else {
+                con.releaseSavepoint(savepoint);
+            }
+            return new BatchResult(offset, chunk.size(), affectedRows, true);
+        } catch (Exception e) {
+            if (commit) {
+                throwDBError(e);
+            } else {
+                e.printStackTrace(); // Not reported, a failed chunk only rolls back to its savepoint instead of failing the transaction
+            }
+            try {
+                if (batchStatement != null) batchStatement.clearBatch();
+                if (commit) {
+                    con.rollback();
+                } else if (savepoint != null) {
+                    con.rollback(savepoint);
+                }
+            } catch (SQLException rollbackError) {
+                throwDBError(rollbackError);
+            }
+            return new BatchResult(offset, chunk.size(), 0, false);
+        }
+    }
+
+    private String buildInsertQuery(List<E> properties, int rows, boolean upsert) {
+        TableMetadata<E> metadata = getInstance().metadata();
+        if (rows == 1) return upsert ? metadata.upsert() : metadata.insert();
+        return metadata.template(upsert ? "upsertRows" : "insertRows", List.of(rows), () -> {
+            String row = properties.stream().map(p -> "?").collect(Collectors.joining(", ", "(", ")"));
+            StringBuilder query = new StringBuilder("INSERT INTO ").append(metadata.tableName())
+                    .append(" (").append(TableMetadata.join(properties, "", ", ")).append(") VALUES ");
+            for (int i = 0; i < rows; i++) {
+                if (i > 0) query.append(", ");
+                query.append(row);
+            }
+            if (upsert) {
+                query.append(metadata.upsert(), metadata.insert().length(), metadata.upsert().length());
+            }
+            return query.toString();
+        });
+    }
+
+    /**
+     * @return The write-behind buffer of the Table, or null if it is not enabled or the upsert has to be written directly
+     */
+    private WriteBehindBuffer<R> writeBehindBuffer() {
+        if (Transaction.current() != null || SQL.isShardBound()) return null; // Written with the transaction or on the bound shard
+        G table = getInstance();
+        return table.writeBehindBuffer(config -> {
+            if (table.metadata().keyColumns().isEmpty()) {
+                throw new IllegalStateException("Write-behind needs a primary key to coalesce writes: " + table.tableName());
+            }
+            return new WriteBehindBuffer<>(table.tableName(), config, records -> {
+                // A fixed chunk size keeps the statement shapes bounded, flushes of fewer Records are split into power of two parts
+                List<BatchResult> results = writeAll(records, new BatchOptions(config.batchSize(), true), true, true);
+                return !results.isEmpty() && results.stream().allMatch(BatchResult::success);
+            });
+        });
+    }
+
+    /**
+     * Buffers an upsert and invalidates the cached Record, so reads do not return it from the cache while the new one is buffered
+     * @return false if the Record has to be written directly
+     */
+    private boolean buffered(WriteBehindBuffer<R> buffer, R record) {
+        try {
+            R filteredRecord = SQLInputFilter.filterBoundInput(record); // Filter SQL Injection
+            if (!buffer.offer(primaryKey(filteredRecord), filteredRecord)) return false; // Written as filtered
+            invalidateCache(cacheKey(filteredRecord));
+            return true;
+        } catch (Exception e) {
+            return false; // Written directly, which reports the error
+        }
+    }
+
+    /**
+     * Writes the buffered upserts of the Table, so a direct write is applied after them.
+     * If they could not be written the direct write has to be skipped, the failed Records stay buffered and would undo it later.
+     * @return false if the buffered upserts could not be written, the error is reported
+     */
+    private boolean flushWriteBehind() {
+        Optional<WriteBehindBuffer<R>> buffer = getInstance().getWriteBehindBuffer();
+        if (buffer.isEmpty() || buffer.get().flush()) return true;
+        throwDBError(new SQLException("Buffered upserts of " + getInstance().tableName() + " could not be written, the write was skipped"));
+        return false;
+    }
+
+    /**
+     * @return One failed result covering all Records, for a bulk write that was skipped
+     */
+    private static List<BatchResult> notWritten(Collection<?> records) {
+        List<BatchResult> results = new ArrayList<>();
+        if (records != null && !records.isEmpty()) {
+            results.add(new BatchResult(0, records.size(), 0, false));
+        }
+        return results;
+    }
+
+    /**
+     * @return The sharding of the Table, or null if it is not sharded or the call already runs on one shard
+     */
+    private Sharding<E> sharding() {
+        return SQL.isShardBound() ? null : getInstance().sharding();
+    }
+
+    private void requireUnsharded(String operation) {
+        if (sharding() != null) {
+            throw new UnsupportedOperationException(operation + " is not supported on the sharded Table " + getInstance().tableName());
+        }
+    }
+
+    /**
+     * Runs the call on the shard holding the value of the shard column
+     * @return Result of the call, or failedValue if the shard could not be selected
+     */
+    private <T> T onShard(Sharding<E> sharding, Object keyValue, Supplier<T> call, T failedValue) {
+        try {
+            return sharding.onShardOf(SQLInputFilter.filterBoundInput(keyValue), call::get);
+        } catch (Exception e) {
+            throwDBError(e);
+            return failedValue;
+        }
+    }
+
+    /**
+     * Runs the call on the shard holding the Record
+     */
+    private <T> T onShardOf(Sharding<E> sharding, R record, Supplier<T> call, T failedValue) {
+        try {
+            return onShard(sharding, getValueByName(record, sharding.shardColumn().name()), call, failedValue);
+        } catch (Exception e) {
+            throwDBError(e);
+            return failedValue;
+        }
+    }
+
+    /**
+     * Runs the call on every shard in parallel
+     * @return The results in shard order, or empty if a shard failed
+     */
+    private <T> Optional<List<T>> onAllShards(Sharding<E> sharding, Sharding.ShardCall<T> call) {
+        try {
+            return Optional.of(sharding.onAllShards(call));
+        } catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+    }
+
+    private boolean anyShard(Sharding<E> sharding, Supplier<Boolean> call) {
+        return onAllShards(sharding, shard -> call.get()).map(results -> results.contains(true)).orElse(false);
+    }
+
+    private <T> Optional<List<T>> concatShards(Sharding<E> sharding, Supplier<Optional<List<T>>> call) {
+        return onAllShards(sharding, shard -> call.get()).flatMap(results -> Sharding.merge(results, null, -1));
+    }
+
+    private <T> Optional<T> firstOfShards(Sharding<E> sharding, Supplier<Optional<T>> call) {
+        return onAllShards(sharding, shard -> call.get()).flatMap(results -> results.stream().flatMap(Optional::stream).findFirst());
+    }
+
+    /**
+     * @return The first Record of all shards in the order of orderColumn
+     */
+    private Optional<R> firstOfShards(Sharding<E> sharding, E orderColumn, Order order, Supplier<Optional<R>> call) {
+        Comparator<R> comparator = Sharding.columnOrder(record -> valueOf(record, orderColumn), order);
+        return onAllShards(sharding, shard -> call.get()).flatMap(results -> results.stream().flatMap(Optional::stream).min(comparator));
+    }
+
+    /**
+     * Merges the maps read from every shard, values of keys present on several shards are combined with merge
+     * @return The merged map, or empty if a shard failed
+     */
+    private <K, V> Optional<Map<K, V>> mergeShards(Sharding<E> sharding, Supplier<Optional<Map<K, V>>> call, BinaryOperator<V> merge) {
+        return onAllShards(sharding, shard -> call.get()).flatMap(results -> mergeMaps(results, merge));
+    }
+
+    private static <K, V> Optional<Map<K, V>> mergeMaps(List<Optional<Map<K, V>>> results, BinaryOperator<V> merge) {
+        Map<K, V> merged = new HashMap<>();
+        for (Optional<Map<K, V>> result : results) {
+            if (result.isEmpty()) return Optional.empty();
+            for (Map.Entry<K, V> entry : result.get().entrySet()) {
+                V previous = merged.get(entry.getKey());
+                merged.put(entry.getKey(), previous == null || entry.getValue() == null ? entry.getValue() : merge.apply(previous, entry.getValue()));
+            }
+        }
+        return Optional.of(merged);
+    }
+
+    /**
+     * Runs an IN lookup. Values of the shard column are grouped by shard and every group is looked up on its shard only,
+     * lookups by other columns run on all shards.
+     */
+    private <V> Optional<Map<Object, V>> inShards(Sharding<E> sharding, E keyColumn, Collection<?> values, Function<Collection<?>, Optional<Map<Object, V>>> call, BinaryOperator<V> merge) {
+        if (keyColumn != sharding.shardColumn()) {
+            return mergeShards(sharding, () -> call.apply(values), merge);
+        }
+        if (values == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        Map<SQLConnection.dbKey, List<Object>> groups = new HashMap<>();
+        try {
+            for (Object value : values) {
+                groups.computeIfAbsent(sharding.shardOf(SQLInputFilter.filterBoundInput(value)), shard -> new ArrayList<>()).add(value);
+            }
+        } catch (Exception e) {
+            throwDBError(e);
+            return Optional.empty();
+        }
+        return onAllShards(sharding, shard -> groups.containsKey(shard) ? call.apply(groups.get(shard)) : Optional.of(Map.<Object, V>of()))
+                .flatMap(results -> mergeMaps(results, merge));
+    }
+
+    /**
+     * Opens the stream of every shard, one after another. Each stream holds its own connection until the combined stream is closed.
+     */
+    private Stream<R> streamShards(Sharding<E> sharding, Supplier<Stream<R>> call) {
+        List<Stream<R>> streams = new ArrayList<>(sharding.shards().size());
+        for (SQLConnection.dbKey shard : sharding.shards()) {
+            streams.add(SQL.callOnShard(shard, call::get));
+        }
+        return streams.stream().reduce(Stream.empty(), Stream::concat);
+    }
+
+    /**
+     * Writes the Records of every shard on that shard, the shards are written in parallel.
+     * Offsets of the results index the Records written to the same shard.
+     */
+    private List<BatchResult> writeShards(Sharding<E> sharding, Collection<R> records, Function<List<R>, List<BatchResult>> write) {
+        Map<SQLConnection.dbKey, List<R>> groups = new HashMap<>();
+        try {
+            for (R record : records) {
+                Object keyValue = SQLInputFilter.filterBoundInput(getValueByName(record, sharding.shardColumn().name()));
+                groups.computeIfAbsent(sharding.shardOf(keyValue), shard -> new ArrayList<>()).add(record);
+            }
+        } catch (Exception e) {
+            throwDBError(e);
+            return new ArrayList<>();
+        }
+        List<BatchResult> results = new ArrayList<>();
+        onAllShards(sharding, shard -> groups.containsKey(shard) ? write.apply(groups.get(shard)) : List.<BatchResult>of())
+                .ifPresent(shardResults -> shardResults.forEach(results::addAll));
+        return results;
+    }
+
+    private ColumnValue<E> shardPair(Sharding<E> sharding, ColumnValue<E>[] pairs) {
+        if (pairs == null) return null;
+        for (ColumnValue<E> pair : pairs) {
+            if (pair != null && pair.keyColumn() == sharding.shardColumn()) return pair;
+        }
+        return null;
+    }
+
+    private static Object valueOf(java.lang.Record record, DatabaseProperty column) {
+        try {
+            return getValueByName(record, column.name());
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException("Can not read column " + column.name() + " of " + record.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Runs a read, sharing it with concurrent identical reads if the Table enables {@link Table#singleFlightReads()}.
+     * Reads forced to the primary only share reads that are forced as well.
+     */
+    private <T> T readShared(String query, List<?> parameters, Callable<T> read, UnaryOperator<T> share) throws Exception {
+        G table = getInstance();
+        return table.singleFlightReads() && Transaction.current() == null && !SQL.isShardBound() ? table.getSingleFlight().execute(query, parameters, read, share) : read.call();
+    }
+
+    /**
+     * Reads a Record through the entity cache of the Table. Reads inside a transaction bypass the cache.
+     * @param cacheKey Primary key of the Record, null if the read is not by primary key or the Table has no cache
+     */
+    private Optional<R> readCached(Object cacheKey, Callable<Optional<R>> read) throws Exception {
+        if (cacheKey == null || Transaction.current() != null) return read.call();
+        EntityCache<R> cache = getInstance().getEntityCache();
+        R cached = cache.get(cacheKey);
+        if (cached != null) return Optional.of(cached);
+        long stamp = cache.stamp(cacheKey);
+        Optional<R> row = SQL.readFromPrimary(read::call); // A lagging replica could return a row older than the stamp
+        row.ifPresent(record -> cache.put(cacheKey, record, stamp));
+        return row;
+    }
+
+    /**
+     * Writes a Record and stores it in the entity cache of the Table, unless another write to its key interleaved.
+     * Cached query results of the Table are invalidated.
+     */
+    private boolean writeThrough(R record, Callable<Boolean> write) throws Exception {
+        Object cacheKey = cacheKey(record);
+        if (cacheKey == null || Transaction.current() != null) {
+            try {
+                return write.call();
+            } finally {
+                invalidateCache(cacheKey);
+            }
+        }
+        EntityCache<R> cache = getInstance().getEntityCache();
+        long stamp = cache.invalidate(cacheKey);
+        boolean written = false;
+        try {
+            written = write.call();
+        } finally {
+            SQL.Service.getQueryCache().invalidate(getInstance().tableName());
+            long current = cache.invalidate(cacheKey);
+            if (written && current == stamp + 1) {
+                cache.put(cacheKey, record, current);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Invalidates the cached query results of the Table and removes a Record from its entity cache
+     * @param cacheKey Primary key of the Record, null to clear the whole entity cache
+     */
+    private void invalidateCache(Object cacheKey) {
+        Transaction transaction = Transaction.current();
+        if (transaction != null) {
+            // Reads of other threads may cache the old row until the transaction ends
+            transaction.afterCompletion(() -> invalidateCache(cacheKey));
+        }
+        SQL.Service.getQueryCache().invalidate(getInstance().tableName());
+        EntityCache<R> cache = getInstance().getEntityCache();
+        if (cache == null) return;
+        if (cacheKey == null) {
+            cache.clear();
+        } else {
+            cache.invalidate(cacheKey);
+        }
+    }
+
+    /**
+     * Invalidates the cached query results of the Table once and removes the Records of the keys from its entity cache
+     */
+    private void invalidateCacheKeys(List<Object> cacheKeys) {
+        Transaction transaction = Transaction.current();
+        if (transaction != null) {
+            transaction.afterCompletion(() -> invalidateCacheKeys(cacheKeys));
+        }
+        SQL.Service.getQueryCache().invalidate(getInstance().tableName());
+        EntityCache<R> cache = getInstance().getEntityCache();
+        if (cache == null) return;
+        for (Object cacheKey : cacheKeys) {
+            cache.invalidate(cacheKey);
+        }
+    }
+
+    /**
+     * @return The cache keys of the filtered Records, empty if the Table has no cache
+     */
+    private List<Object> cacheKeys(List<R> records) throws Exception {
+        if (getInstance().getEntityCache() == null) return List.of();
+        List<Object> cacheKeys = new ArrayList<>(records.size());
+        for (R record : records) {
+            Object cacheKey = primaryKey(record);
+            if (cacheKey != null) cacheKeys.add(cacheKey);
+        }
+        return cacheKeys;
+    }
+
+    /**
+     * @return The cache key of a lookup by keyColumn, or null if keyColumn is not the whole primary key or the Table has no cache
+     */
+    private Object cacheKey(E keyColumn, Object keyValue) {
+        return cachedByKey(keyColumn) ? keyValue : null;
+    }
+
+    /**
+     * @return true if lookups by keyColumn go through the entity cache, which reads them from the primary
+     */
+    private boolean cachedByKey(E keyColumn) {
+        if (getInstance().getEntityCache() == null) return false;
+        List<E> keyColumns = getInstance().metadata().keyColumns();
+        return keyColumns.size() == 1 && keyColumns.getFirst() == keyColumn;
+    }
+
+    /**
+     * @return The cache key of a lookup by the pairs, or null if they are not exactly the primary key or the Table has no cache
+     */
+    private Object cacheKey(ColumnValue<E>[] pairs) throws Exception {
+        if (getInstance().getEntityCache() == null) return null;
+        List<E> keyColumns = getInstance().metadata().keyColumns();
+        if (pairs.length != keyColumns.size()) return null;
+        Object[] values = new Object[pairs.length];
+        for (ColumnValue<E> pair : pairs) {
+            int index = keyColumns.indexOf(pair.keyColumn());
+            if (index < 0 || values[index] != null) return null;
+            values[index] = SQLInputFilter.filterBoundInput(pair.keyValue());
+        }
+        return values.length == 1 ? values[0] : Arrays.asList(values);
+    }
+
+    /**
+     * @return The cache key of the Record, or null if the Table has no primary key or no cache
+     */
+    private Object cacheKey(R record) throws Exception {
+        if (getInstance().getEntityCache() == null) return null;
+        return primaryKey(record);
+    }
+
+    /**
+     * @return The primary key value of the Record, a List of the values if the key has several columns, or null if the Table has no primary key
+     */
+    private Object primaryKey(R record) throws Exception {
+        List<E> keyColumns = getInstance().metadata().keyColumns();
+        if (keyColumns.isEmpty()) return null;
+        if (keyColumns.size() == 1) return getValueByName(record, keyColumns.getFirst().name());
+        Object[] values = new Object[keyColumns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getValueByName(record, keyColumns.get(i).name());
+        }
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Batches of the entity cache key are read from the primary, like every read stored in the entity cache.
+     * @return The BatchLoader for lookups by keyColumn, or null if the Table does not batch lookups
+     *         or the lookup has to run on the current thread
+     */
+    private BatchLoader<R> batchLoader(E keyColumn) {
+        BatchLoader.Config config = getInstance().batchLoading();
+        if (config == null || Transaction.current() != null || SQL.isShardBound()) return null; // Batches run on other threads
+        if (SQL.isPrimaryForced() && !cachedByKey(keyColumn)) return null; // Batches of other callers may read from a replica
+        return getInstance().batchLoader(keyColumn, column -> new BatchLoader<>(config, keys -> cachedByKey(column)
+                ? SQL.readFromPrimary(() -> getByKeyIn(column, keys, config.maxBatchSize()))
+                : getByKeyIn(column, keys, config.maxBatchSize())));
+    }
+
+    /**
+     * Filters, type checks and deduplicates the values of an IN lookup.
+     * Values are compared by equals, so byte[] values are only deduplicated by identity.
+     * @return The distinct values, or null if a value has the wrong type
+     */
+    private List<Object> inValues(E keyColumn, Collection<?> values, int chunkSize) throws Exception {
+        if (values == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        if (chunkSize < 1 || chunkSize > MAX_IN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize + ", expected: 1 - " + MAX_IN_CHUNK_SIZE);
+        }
+        LinkedHashSet<Object> keys = new LinkedHashSet<>();
+        for (Object value : values) {
+            Object keyValue = SQLInputFilter.filterBoundInput(value); // Filter SQL Injection
+            if (!keyColumn.getType().getTypeClass().isInstance(keyValue)) {
+                throwInputError(keyColumn, keyValue);
+                return null;
+            }
+            keys.add(keyValue);
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Runs one IN query per chunk of keys on one connection and maps the first row of every key into rows.
+     * The query selects {@link #inFieldIndex(Enum, int)} as first column, so each row is keyed by the value that was
+     * requested instead of the value stored, which may differ under the collation of the column.
+     * The last chunk is padded with its last key up to the next power of two, so only a few statement shapes exist per table.
+     */
+    private <V> void queryIn(List<Object> keys, int chunkSize, IntFunction<String> queryForSize, InterDefinitions.ResultSetMapper<V> rowMapper, Map<Object, V> rows) throws Exception {
+        if (keys.isEmpty()) return;
+        try (PooledConnection connection = SQL.borrowReadConnection()) {
+            for (int offset = 0; offset < keys.size(); offset += chunkSize) {
+                List<Object> chunk = keys.subList(offset, Math.min(keys.size(), offset + chunkSize));
+                int size = chunk.size() == 1 ? 1 : Math.min(chunkSize, Integer.highestOneBit(chunk.size() - 1) << 1);
+                try (PreparedStatement prepStatement = connection.prepareStatement(queryForSize.apply(size))) {
+                    for (int i = 0; i < size; i++) {
+                        Object key = chunk.get(Math.min(i, chunk.size() - 1));
+                        setParameter(prepStatement, i + 1, key);
+                        setParameter(prepStatement, size + i + 1, key);
+                    }
+                    try (ResultSet rs = prepStatement.executeQuery()) {
+                        while (rs.next()) {
+                            int index = rs.getInt(1); // Padding repeats the last key, FIELD returns its first position
+                            if (index < 1) continue;
+                            Object key = chunk.get(index - 1);
+                            if (!rows.containsKey(key)) rows.put(key, rowMapper.map(rs));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code FIELD(keyColumn, ?, ...)}, the 1-based position of the first of size values the row matches.
+     *         The database compares with the collation of keyColumn, like the IN list of the query.
+     */
+    private static String inFieldIndex(DatabaseProperty keyColumn, int size) {
+        return "FIELD(" + keyColumn.name() + ", " + "?, ".repeat(size - 1) + "?)";
+    }
+
+    private static <E extends Enum<E> & DatabaseProperty> List<E> columnsOf(ColumnValue<E>[] pairs) {
+        List<E> columns = new ArrayList<>(pairs.length);
+        for (ColumnValue<E> pair : pairs) {
+            columns.add(pair.keyColumn());
+        }
+        return columns;
+    }
+
+
+    private Optional<R> executeQuery(String query, ColumnValue<E>[] keyPairs) throws Exception {
+        try (PooledConnection connection = SQL.borrowReadConnection();
+                 PreparedStatement prepStatement = connection.prepareStatement(query)) {
+            for (int i = 0; i < keyPairs.length; i++) {
+                setParameter(prepStatement, i + 1, SQLInputFilter.filterBoundInput(keyPairs[i].keyValue()));
+            }
+            try (ResultSet rs = prepStatement.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(getInstance().recordMapper().map(rs, 0));
+                } else {
+                    return Optional.empty();
+                }
+            }
+        }
+    }
+
+
+    private void setParameters(PreparedStatement prepStatement, R record, List<E> properties) throws SQLException, NoSuchFieldException, IllegalAccessException {
+        for (int index = 0; index < properties.size(); index++) {
+            setParameter(prepStatement, index + 1, getValueByName(record, properties.get(index).name()));
+        }
+    }
+
+    private int setParameters(PreparedStatement prepStatement, R record, List<E> properties, int startIndex) throws SQLException, NoSuchFieldException, IllegalAccessException {
+        int index = startIndex;
+        for (E property : properties) {
+            setParameter(prepStatement, index++, getValueByName(record, property.name()));
+        }
+        return index;
+    }
+
+    private int setParameters(PreparedStatement prepStatement, R record, List<E> properties, boolean keysOnly) throws
+            SQLException, NoSuchFieldException, IllegalAccessException {
+        return setParameters(prepStatement, record, properties, keysOnly, 1);
+    }
+
+    private int setParameters(PreparedStatement prepStatement, R record, List<E> properties, boolean keysOnly,
+                              int startIndex) throws SQLException, NoSuchFieldException, IllegalAccessException {
+        int index = startIndex;
+        for (E property : properties) {
+            if (property.isKey() == keysOnly) {
+                Object value = getValueByName(record, property.name());
+                setParameter(prepStatement, index++, value);
+            }
+        }
+        return index;
+    }
+
+
+    static Object getTypedValue(ResultSet rs, DatabaseProperty returnColumn) throws SQLException {
+        return InterDefinitions.getTypedValue(rs,returnColumn,null);
+    }
+
+    static Object getTypedValue(ResultSet rs, int columnIndex, DatabaseProperty returnColumn) throws SQLException {
+        return InterDefinitions.getTypedValue(rs, columnIndex, returnColumn);
+    }
+
+
+}
+
+
+
+
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,193 @@
+package de.juniorjacki.SQL.Interface;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of Table Records by primary key, with LRU eviction and an optional time to live.
+ * Entries are spread over independently locked segments, so concurrent lookups of different keys rarely contend.
+ * Every segment counts its writes: a Record loaded from the database is only cached if no write to the
+ * segment happened since the load started, so a slow read can not cache a row that was changed meanwhile.
+ *
+ * @param <R> The Record type
+ */
+public final class EntityCache<R> {
+
+    private final Config config;
+    private final Segment<R>[] segments;
+    private final int segmentMask;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize Maximum number of cached Records
+     * @param ttl Time a Record stays cached after it was stored, null to keep it until it is evicted or invalidated
+     */
+    public record Config(int maxSize, Duration ttl) {
+        public Config {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("Invalid cache size: " + maxSize);
+            }
+            if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+                throw new IllegalArgumentException("Invalid cache ttl: " + ttl);
+            }
+        }
+
+        public static Config defaults() {
+            return new Config(10_000, Duration.ofMinutes(5));
+        }
+    }
+
+    private record Entry<R>(R value, long expiresAt) {}
+
+    private static final class Segment<R> {
+        private final LinkedHashMap<Object, Entry<R>> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maxSize;
+        private long writes = 0;
+
+        private Segment(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public EntityCache(Config config) {
+        if (config == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+        this.config = config;
+        this.ttlNanos = config.ttl() == null ? 0 : config.ttl().toNanos();
+        int segmentCount = Integer.highestOneBit(Math.min(64, Runtime.getRuntime().availableProcessors() * 2));
+        while (segmentCount > 1 && config.maxSize() / segmentCount < 16) {
+            segmentCount >>= 1;
+        }
+        @SuppressWarnings("unchecked")
+        Segment<R>[] created = (Segment<R>[]) new Segment<?>[segmentCount];
+        int segmentSize = (config.maxSize() + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            created[i] = new Segment<>(segmentSize);
+        }
+        this.segments = created;
+        this.segmentMask = segmentCount - 1;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    private Segment<R> segment(Object key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    /**
+     * @return The cached Record of the key, or null if it is not cached or expired
+     */
+    public R get(Object key) {
+        Segment<R> segment = segment(key);
+        synchronized (segment) {
+            Entry<R> entry = segment.entries.get(key);
+            if (entry != null) {
+                if (ttlNanos == 0 || entry.expiresAt() - System.nanoTime() > 0) {
+                    hits.increment();
+                    return entry.value();
+                }
+                segment.entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Takes a stamp before loading the Record of the key, to be passed to {@link #put(Object, Object, long)}
+     */
+    public long stamp(Object key) {
+        Segment<R> segment = segment(key);
+        synchronized (segment) {
+            return segment.writes;
+        }
+    }
+
+    /**
+     * Caches the Record of the key, unless a write hit its segment since the stamp was taken
+     * @return true if the Record was cached
+     */
+    public boolean put(Object key, R value, long stamp) {
+        Segment<R> segment = segment(key);
+        synchronized (segment) {
+            if (segment.writes != stamp) return false;
+            segment.entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+            Iterator<Map.Entry<Object, Entry<R>>> eldest = segment.entries.entrySet().iterator();
+            while (segment.entries.size() > segment.maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Removes the Record of the key and marks its segment as written
+     * @return Stamp to write the new Record of the key through with {@link #put(Object, Object, long)}
+     */
+    public long invalidate(Object key) {
+        Segment<R> segment = segment(key);
+        synchronized (segment) {
+            segment.entries.remove(key);
+            return ++segment.writes;
+        }
+    }
+
+    /**
+     * Removes all Records, used by writes that can not name the primary keys they change
+     */
+    public void clear() {
+        for (Segment<R> segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+                segment.writes++;
+            }
+        }
+    }
+
+    /**
+     * @return Number of cached Records, including expired ones not removed yet
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<R> segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Share of lookups answered from the cache, 0 if there were none
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+}
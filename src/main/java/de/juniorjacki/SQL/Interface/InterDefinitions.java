@@ -1,14 +1,22 @@
 package de.juniorjacki.SQL.Interface;
 
 import de.juniorjacki.SQL.Base.SQLInputFilter;
+import de.juniorjacki.SQL.Connection.PooledConnection;
 import de.juniorjacki.SQL.Structure.DatabaseProperty;
 import de.juniorjacki.SQL.Structure.Table;
 import de.juniorjacki.SQL.Type.DatabaseType;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.HexFormat;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class InterDefinitions {
     /**
@@ -53,6 +61,23 @@ public class InterDefinitions {
         return returnColumn.getType().resultSetConverter.apply(rs, columnName);
     }
 
+    /**
+     * Retrieves a typed value from a ResultSet by column index, avoiding the label lookup of the driver.
+     *
+     * @param rs           The ResultSet containing the query results
+     * @param columnIndex  The 1-based index of the column in the select list
+     * @param returnColumn The property defining the column type
+     * @return The typed value of the column
+     * @throws IllegalArgumentException if returnColumn is null
+     * @throws SQLException if a database error occurs
+     */
+    public static Object getTypedValue(ResultSet rs, int columnIndex, DatabaseProperty returnColumn) throws SQLException {
+        if (returnColumn == null) {
+            throw new IllegalArgumentException("Return column cannot be null");
+        }
+        return returnColumn.getType().indexConverter.apply(rs, columnIndex);
+    }
+
     /**
      * Sets a parameter value in a PreparedStatement at the specified index.
      *
@@ -62,8 +87,11 @@ public class InterDefinitions {
      * @throws SQLException if a database error occurs
      */
     public static void setParameter(PreparedStatement prepStatement, int index, Object value) throws SQLException {
+        if (value instanceof QueryBuilder.PreparedQuery.Slot || value instanceof QueryBuilder.Parameter) {
+            throw new IllegalStateException("Query parameters need a value, compile() the query to supply them");
+        }
         try {
-            value = SQLInputFilter.filterExternalInput(value); // Filter SQL Injection
+            // Values are filtered where they enter the library, binding keeps them out of the SQL text
             if (value == null) {
                 prepStatement.setNull(index, Types.VARCHAR);
                 return;
@@ -74,6 +102,43 @@ public class InterDefinitions {
         }
     }
 
+    /**
+     * Sets parameter values in a PreparedStatement, starting at the specified index.
+     *
+     * @param prepStatement The PreparedStatement to set the parameters on
+     * @param parameters    The values to set, in placeholder order
+     * @param startIndex    The index of the first parameter
+     * @return The index following the last set parameter
+     * @throws SQLException if a database error occurs
+     */
+    public static int setParameters(PreparedStatement prepStatement, List<?> parameters, int startIndex) throws SQLException {
+        int index = startIndex;
+        for (Object value : parameters) {
+            setParameter(prepStatement, index++, value);
+        }
+        return index;
+    }
+
+    /**
+     * Prepares a statement and binds its parameters. The statement is closed if binding fails.
+     *
+     * @param connection The connection to prepare the statement on, through its statement cache
+     * @param query      The SQL query with placeholders
+     * @param parameters The values of the placeholders, in order
+     * @return The prepared statement with all parameters set
+     * @throws SQLException if a database error occurs
+     */
+    public static PreparedStatement prepareStatement(PooledConnection connection, String query, List<?> parameters) throws SQLException {
+        PreparedStatement prepStatement = connection.prepareStatement(query);
+        try {
+            setParameters(prepStatement, parameters, 1);
+            return prepStatement;
+        } catch (SQLException | RuntimeException e) {
+            prepStatement.close();
+            throw e;
+        }
+    }
+
     /**
      * Sets a constructor argument from a ResultSet for a specific property and component name.
      *
@@ -92,6 +157,116 @@ public class InterDefinitions {
         constructorArgs[index] = property.getType().resultSetConverter.apply(resultSet, componentName);
     }
 
+    /**
+     * Maps the current row of a ResultSet to an Object.
+     */
+    @FunctionalInterface
+    public interface ResultSetMapper<T> {
+        T map(ResultSet rs) throws Exception;
+    }
+
+    /**
+     * Prepares a statement whose results are streamed row by row from the server instead of being
+     * loaded into memory at once. The connection can not run other statements until the results are closed.
+     *
+     * @param connection The connection to prepare the statement on
+     * @param query      The SQL query
+     * @return The prepared streaming statement
+     * @throws SQLException if a database error occurs
+     */
+    public static PreparedStatement prepareStreamingStatement(Connection connection, String query) throws SQLException {
+        PreparedStatement prepStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        prepStatement.setFetchSize(Integer.MIN_VALUE); // MySQL: stream results row by row
+        return prepStatement;
+    }
+
+    /**
+     * Prepares a streaming statement and binds its parameters. The statement is closed if binding fails.
+     *
+     * @param connection The connection to prepare the statement on
+     * @param query      The SQL query with placeholders
+     * @param parameters The values of the placeholders, in order
+     * @return The prepared streaming statement with all parameters set
+     * @throws SQLException if a database error occurs
+     * @see #prepareStreamingStatement(Connection, String)
+     */
+    public static PreparedStatement prepareStreamingStatement(Connection connection, String query, List<?> parameters) throws SQLException {
+        PreparedStatement prepStatement = prepareStreamingStatement(connection, query);
+        try {
+            setParameters(prepStatement, parameters, 1);
+            return prepStatement;
+        } catch (SQLException | RuntimeException e) {
+            prepStatement.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Executes a prepared query and returns its rows as lazily populated Stream.
+     * The statement and the connection are released once the Stream is closed or fully consumed,
+     * so the Stream should be used in a try-with-resources block.
+     *
+     * @param connection    The borrowed connection the statement belongs to
+     * @param prepStatement The prepared statement with all parameters set
+     * @param mapper        Maps each row to a result
+     * @param <T>           The type of the results
+     * @return A Stream of mapped rows
+     * @throws SQLException if the query cannot be executed, in which case statement and connection are released
+     */
+    public static <T> Stream<T> streamResults(PooledConnection connection, PreparedStatement prepStatement, ResultSetMapper<T> mapper) throws SQLException {
+        ResultSet rs;
+        try {
+            rs = prepStatement.executeQuery();
+        } catch (SQLException e) {
+            closeQuietly(null, prepStatement, connection);
+            throw e;
+        }
+        Runnable release = new Runnable() {
+            private boolean released = false;
+
+            @Override
+            public synchronized void run() {
+                if (released) return;
+                released = true;
+                closeQuietly(rs, prepStatement, connection);
+            }
+        };
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!rs.next()) {
+                        release.run();
+                        return false;
+                    }
+                    action.accept(mapper.map(rs));
+                    return true;
+                } catch (RuntimeException e) {
+                    release.run();
+                    throw e;
+                } catch (Exception e) {
+                    release.run();
+                    throw new RuntimeException("Failed to read streamed row", e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(release);
+    }
+
+    private static void closeQuietly(ResultSet rs, PreparedStatement prepStatement, PooledConnection connection) {
+        try {
+            if (rs != null) rs.close();
+        } catch (SQLException e) {
+            throwDBError(e);
+        }
+        try {
+            prepStatement.close();
+        } catch (SQLException e) {
+            throwDBError(e);
+        }
+        connection.close();
+    }
+
     /**
      * Returns the SQL type for a given Java class, considering an extended length for certain types.
      *
@@ -1,16 +1,27 @@
 package de.juniorjacki.SQL.Interface;
 
+import de.juniorjacki.SQL.Base.SQLInputFilter;
+import de.juniorjacki.SQL.Connection.PooledConnection;
+import de.juniorjacki.SQL.Connection.Transaction;
 import de.juniorjacki.SQL.SQL;
 import de.juniorjacki.SQL.Structure.DatabaseProperty;
 import de.juniorjacki.SQL.Structure.Table;
 import de.juniorjacki.SQL.Type.DatabaseRecord;
 import de.juniorjacki.SQL.Type.Record;
+import de.juniorjacki.SQL.Type.RecordMapper;
 
+import java.security.InvalidParameterException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static de.juniorjacki.SQL.Interface.InterDefinitions.*;
-import static de.juniorjacki.SQL.Interface.InterDefinitions.appendParameter;
 
 public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record & DatabaseRecord<R, E>, E extends Enum<E> & DatabaseProperty> {
 
@@ -48,6 +59,7 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
         protected E orderBy;
         protected DatabaseInterface.Order order;
         protected E groupBy;
+        protected Duration cacheTtl;
         protected final S table;
 
         /**
@@ -127,18 +139,112 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
             return (T) this;
         }
 
+        /**
+         * Caches the results of this query in the {@link SQL#getQueryCache() query cache}.
+         * Cached results are dropped after the ttl or once a write through a DatabaseInterface changes a queried table.
+         *
+         * @param ttl The time a result stays cached
+         * @return The current query instance for method chaining
+         * @throws IllegalArgumentException if the ttl is null or not positive
+         */
+        @SuppressWarnings("unchecked")
+        public T cached(Duration ttl) {
+            if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+                throw new IllegalArgumentException("Invalid cache ttl: " + ttl);
+            }
+            this.cacheTtl = ttl;
+            return (T) this;
+        }
+
+        /**
+         * @return Names of all tables the query reads, used to invalidate cached results
+         */
+        protected List<String> tableNames() {
+            return List.of(table.tableName());
+        }
+
+        /**
+         * Runs the read, through the query cache if {@link #cached(Duration)} is set and no transaction is running
+         *
+         * @param query The rendered query
+         * @param parameters The values of the placeholders in the query
+         * @param read Reads the result from the database
+         * @param copy Copies a cached result for the caller
+         * @return The result
+         */
+        protected <V> V executeCached(String query, List<Object> parameters, Callable<V> read, UnaryOperator<V> copy) throws Exception {
+            if (cacheTtl == null || Transaction.current() != null || SQL.isShardBound()) return read.call();
+            return SQL.Service.getQueryCache().get(query, parameters, tableNames(), cacheTtl, read, copy);
+        }
+
+        /**
+         * @return The sharding of the queried table, or null if it is not sharded or the query already runs on one shard
+         * @throws UnsupportedOperationException if the query is grouped, groups can not be merged across shards
+         */
+        @SuppressWarnings("unchecked")
+        protected Sharding<E> sharding() {
+            Sharding<E> sharding = SQL.isShardBound() ? null : table.sharding();
+            if (sharding != null && groupBy != null) {
+                throw new UnsupportedOperationException("Grouped queries are not supported on the sharded Table " + table.tableName());
+            }
+            return sharding;
+        }
+
+        /**
+         * @throws UnsupportedOperationException if the table is sharded, the operation can only run on one database
+         */
+        protected static void requireUnsharded(Table<?, ?> table, String operation) {
+            if (!SQL.isShardBound() && table.sharding() != null) {
+                throw new UnsupportedOperationException(operation + " is not supported on the sharded Table " + table.tableName());
+            }
+        }
+
+        /**
+         * Runs the read on every shard in parallel and merges the rows.
+         * Every shard applies the order and limit of the query, so merging the sorted rows of all shards yields the overall first rows.
+         *
+         * @param read Reads the rows of one shard
+         * @param comparator Order of the rows, null if the query is not ordered
+         * @return The merged rows, empty if there are none
+         */
+        protected <V> Optional<List<V>> executeOnShards(Sharding<E> sharding, Callable<Optional<List<V>>> read, Comparator<V> comparator) throws Exception {
+            return Sharding.merge(sharding.onAllShards(shard -> read.call()), comparator, limit);
+        }
+
+        /**
+         * Copies conditions, order, limit and caching of this query to another query of the same table
+         */
+        protected <Q extends Query<?, S, E>> Q copySettings(Q query) {
+            query.conditionQuery = conditionQuery;
+            query.limit = limit;
+            query.orderBy = orderBy;
+            query.order = order;
+            query.groupBy = groupBy;
+            query.cacheTtl = cacheTtl;
+            return query;
+        }
+
+        protected static Object columnValue(java.lang.Record row, DatabaseProperty column) {
+            try {
+                return Record.getValueByName(row, column.name());
+            } catch (NoSuchFieldException | IllegalAccessException e) {
+                throw new IllegalStateException("Can not read column " + column.name() + " of " + row.getClass().getSimpleName(), e);
+            }
+        }
+
         /**
          * Builds the base SQL query string with the specified select clause.
          * This method constructs the query including conditions, grouping, ordering, and limits.
          *
          * @param selectClause The SQL SELECT clause (e.g., "*" or "COUNT(*)")
+         * @param parameters Receives the values of the placeholders in the query, in order
          * @return A StringBuilder containing the constructed SQL query
          */
-        protected StringBuilder buildQueryBase(String selectClause) {
+        protected StringBuilder buildQueryBase(String selectClause, List<Object> parameters) {
             StringBuilder query = new StringBuilder("SELECT ").append(selectClause)
-                    .append(" FROM ").append(table.tableName()).append(" ");
+                    .append(" FROM ").append(table.tableName());
             if (conditionQuery != null) {
-                query.append(conditionQuery.build());
+                query.append(" WHERE ").append(conditionQuery.build(parameters));
             }
             if (groupBy != null) {
                 query.append(" GROUP BY ").append(groupBy.name());
@@ -146,8 +252,9 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
             if (orderBy != null) {
                 query.append(" ORDER BY ").append(orderBy.name()).append(" ").append(order.sql);
             }
-            if (limit < 0) {
-                query.append(" LIMIT ").append(limit);
+            if (limit >= 0) {
+                query.append(" LIMIT ?");
+                parameters.add(limit);
             }
             return query;
         }
@@ -161,10 +268,18 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
             int cLimit = limit;
             try {
                 limitBy(1);
-                String query = buildQueryBase("1").toString();
-                try (var prepStatement = SQL.getConnection().get().prepareStatement(query);
-                     var rs = prepStatement.executeQuery()) {
-                    return rs.next();
+                List<Object> parameters = new ArrayList<>();
+                String query = buildQueryBase("1", parameters).toString();
+                try {
+                    Callable<Boolean> read = () -> {
+                        try (var connection = SQL.borrowReadConnection();
+                             var prepStatement = prepareStatement(connection, query, parameters);
+                             var rs = prepStatement.executeQuery()) {
+                            return rs.next();
+                        }
+                    };
+                    Sharding<E> sharding = sharding();
+                    return executeCached(query, parameters, sharding == null ? read : () -> sharding.onAllShards(shard -> read.call()).contains(true), exists -> exists);
                 } catch (Exception e) {
                     throwDBError(e);
                     return false;
@@ -180,19 +295,66 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
          * @return The number of matching rows as a long
          */
         public long count() {
-            String query = buildQueryBase("COUNT(*)").toString();
-            try (var prepStatement = SQL.getConnection().get().prepareStatement(query);
-                 var rs = prepStatement.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getLong(1);
-                }
-                return 0L;
+            List<Object> parameters = new ArrayList<>();
+            String query = buildQueryBase("COUNT(*)", parameters).toString();
+            try {
+                Callable<Long> read = () -> {
+                    try (var connection = SQL.borrowReadConnection();
+                         var prepStatement = prepareStatement(connection, query, parameters);
+                         var rs = prepStatement.executeQuery()) {
+                        if (rs.next()) {
+                            return rs.getLong(1);
+                        }
+                        return 0L;
+                    }
+                };
+                Sharding<E> sharding = sharding();
+                return executeCached(query, parameters, sharding == null ? read : () -> sharding.onAllShards(shard -> read.call()).stream().mapToLong(Long::longValue).sum(), count -> count);
             } catch (Exception e) {
                 throwDBError(e);
                 return 0L;
             }
         }
 
+        /**
+         * Async variant of {@link #exists()}. The query must not be modified until the future completes.
+         */
+        public CompletableFuture<Boolean> existsAsync() {
+            return SQL.supplyAsync(this::exists);
+        }
+
+        /**
+         * Async variant of {@link #count()}. The query must not be modified until the future completes.
+         */
+        public CompletableFuture<Long> countAsync() {
+            return SQL.supplyAsync(this::count);
+        }
+
+        /**
+         * Renders the query, its exists and its count variant once for a {@link PreparedQuery}.
+         * Conditions with a {@link Parameter} value become parameter slots, all other values are fixed.
+         *
+         * @param selectClause The SQL SELECT clause of the query
+         * @param mapper Maps a result row
+         * @return The compiled query
+         */
+        protected <P> PreparedQuery<P> compile(String selectClause, ResultSetMapper<P> mapper) {
+            requireUnsharded(table, "Compiling a query");
+            List<Object> queryParameters = new ArrayList<>();
+            String query = buildQueryBase(selectClause, queryParameters).toString();
+            List<Object> countParameters = new ArrayList<>();
+            String countQuery = buildQueryBase("COUNT(*)", countParameters).toString();
+            int cLimit = limit;
+            List<Object> existsParameters = new ArrayList<>();
+            String existsQuery;
+            try {
+                limitBy(1);
+                existsQuery = buildQueryBase("1", existsParameters).toString();
+            } finally {
+                limitBy(cLimit);
+            }
+            return new PreparedQuery<>(query, queryParameters, existsQuery, existsParameters, countQuery, countParameters, mapper);
+        }
 
     }
 
@@ -219,30 +381,59 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
          * @return A new BindingRowQuery instance
          */
         public <U extends Table<I, A>, A extends java.lang.Record & DatabaseRecord<A, I>, I extends Enum<I> & DatabaseProperty> BindingRowQuery<G, R, E, U, A, I> join(U joinTable, Binding<G, R, E, U, A, I>... bindings) {
-            return new BindingRowQuery<G, R, E, U, A, I>((G) table, buildQueryBase("*"), joinTable, bindings);
+            requireUnsharded(table, "Join");
+            requireUnsharded(joinTable, "Join");
+            List<Object> parameters = new ArrayList<>();
+            return new BindingRowQuery<G, R, E, U, A, I>((G) table, buildQueryBase(table.metadata().columnList(), parameters), parameters, joinTable, bindings);
         }
 
 
         /**
          * Executes the query and returns all matching rows as a list of records.
+         * If the table enables {@link Table#singleFlightReads()}, concurrent executions of the same query share one database call.
+         * On a sharded table the query runs on every shard and the rows are merged by the orderBy column.
          *
          * @return An Optional containing the list of records, or empty if an error occurs
          */
         public Optional<List<R>> execute() {
-            String query = buildQueryBase("*").toString();
-            try (var prepStatement = SQL.getConnection().get().prepareStatement(query);
-                 var rs = prepStatement.executeQuery()) {
-                List<R> rows = new ArrayList<>();
-                while (rs.next()) {
-                    rows.add((R) Record.populateRecord(table, rs));
+            List<Object> parameters = new ArrayList<>();
+            String query = buildQueryBase(table.metadata().columnList(), parameters).toString();
+            Callable<Optional<List<R>>> read = () -> {
+                try (var connection = SQL.borrowReadConnection();
+                     var prepStatement = prepareStatement(connection, query, parameters);
+                     var rs = prepStatement.executeQuery()) {
+                    List<R> rows = new ArrayList<>();
+                    while (rs.next()) {
+                        rows.add(table.recordMapper().map(rs, 0));
+                    }
+                    return Optional.ofNullable(rows.isEmpty() ? null : rows);
                 }
-                return Optional.ofNullable(rows.isEmpty() ? null : rows);
+            };
+            try {
+                Sharding<E> sharding = sharding();
+                Callable<Optional<List<R>>> rowsRead = sharding == null ? read
+                        : () -> executeOnShards(sharding, read, orderBy == null ? null : Sharding.columnOrder(row -> columnValue(row, orderBy), order));
+                Callable<Optional<List<R>>> sharedRead = table.singleFlightReads() && Transaction.current() == null && !SQL.isShardBound()
+                        ? () -> table.getSingleFlight().execute(query, parameters, rowsRead, rows -> rows.map(ArrayList::new))
+                        : rowsRead;
+                return executeCached(query, parameters, sharedRead, rows -> rows.map(ArrayList::new));
             } catch (Exception e) {
                 throwDBError(e);
                 return Optional.empty();
             }
         }
 
+        /**
+         * Compiles the query into a reusable, thread-safe {@link PreparedQuery}.
+         * Use {@link QueryBuilder#param()} or {@link QueryBuilder#param(String)} as condition value for values supplied on execution.
+         *
+         * @return The compiled query returning records
+         */
+        public PreparedQuery<R> compile() {
+            RecordMapper<R> mapper = table.recordMapper();
+            return compile(table.metadata().columnList(), rs -> mapper.map(rs, 0));
+        }
+
         /**
          * Executes the query and returns the first matching row.
          *
@@ -257,6 +448,238 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
                 this.limitBy(cLimit);
             }
         }
+
+        /**
+         * Executes the query and streams the matching rows from the server instead of loading them into memory.
+         * The Stream holds a connection until it is closed, use it in a try-with-resources block.
+         *
+         * @return A lazily populated Stream of records, empty if an error occurs
+         */
+        public Stream<R> stream() {
+            requireUnsharded(table, "Streaming a query");
+            List<Object> parameters = new ArrayList<>();
+            String query = buildQueryBase(table.metadata().columnList(), parameters).toString();
+            PooledConnection connection = null;
+            try {
+                connection = SQL.borrowReadConnection();
+                return InterDefinitions.streamResults(connection, InterDefinitions.prepareStreamingStatement(connection.get(), query, parameters),
+                        rs -> table.recordMapper().map(rs, 0));
+            } catch (Exception e) {
+                if (connection != null) connection.close();
+                throwDBError(e);
+                return Stream.empty();
+            }
+        }
+
+        /**
+         * Executes the query and passes every matching row to the action while it is streamed from the server.
+         *
+         * @param action The action to perform for each record
+         */
+        public void forEach(Consumer<R> action) {
+            try (Stream<R> rows = stream()) {
+                rows.forEach(action);
+            }
+        }
+
+        /**
+         * Pages through the matching rows using keyset pagination.
+         *
+         * @param pageSize The maximum number of rows per page
+         * @return An iterator over the pages
+         * @see #paginate(int, boolean)
+         */
+        public Iterator<List<R>> paginate(int pageSize) {
+            return paginate(pageSize, false);
+        }
+
+        /**
+         * Pages through the matching rows using keyset ("seek") pagination on the orderBy column plus the primary key.
+         * Each page continues after the last row of the previous page, so every page is an index range scan
+         * no matter how deep the iteration goes. A limit set on the query caps the total number of rows.
+         * The primary key breaks ties between equal orderBy values, rows with a NULL orderBy value are returned
+         * first in ascending and last in descending order, like MySQL sorts them.
+         * The conditions of the query are captured when this method is called.
+         *
+         * @param pageSize  The maximum number of rows per page
+         * @param readAhead Fetch the next page on the async executor while the current page is processed
+         * @return An iterator over the pages
+         * @throws IllegalArgumentException if pageSize is below 1
+         * @throws IllegalStateException if the query is grouped, or the table has no primary key
+         */
+        public Iterator<List<R>> paginate(int pageSize, boolean readAhead) {
+            if (pageSize < 1) {
+                throw new IllegalArgumentException("Invalid page size: " + pageSize + ", expected: >= 1");
+            }
+            if (groupBy != null) {
+                throw new IllegalStateException("Grouped queries cannot be paginated");
+            }
+            requireUnsharded(table, "Pagination");
+            List<E> keyColumns = table.metadata().keyColumns();
+            if (keyColumns.isEmpty()) {
+                // Without a unique, non null tie breaker rows sharing a value at a page boundary would be skipped
+                throw new IllegalStateException("Keyset pagination needs a primary key: " + table.tableName());
+            }
+            List<E> seekColumns = new ArrayList<>();
+            if (orderBy != null) seekColumns.add(orderBy);
+            keyColumns.stream().filter(p -> p != orderBy).forEach(seekColumns::add);
+            String condition = null;
+            List<Object> parameters = new ArrayList<>();
+            if (conditionQuery != null) {
+                StringBuilder built = conditionQuery.build(parameters);
+                condition = built == null ? null : built.toString();
+            }
+            boolean nullableOrder = orderBy != null && !orderBy.isKey();
+            return new KeysetPaginator<>(table, seekColumns, nullableOrder, order == null ? DatabaseInterface.Order.ASCENDING : order, condition, parameters, pageSize, limit, readAhead);
+        }
+
+        /**
+         * Async variant of {@link #execute()}. The query must not be modified until the future completes.
+         */
+        public CompletableFuture<Optional<List<R>>> executeAsync() {
+            return SQL.supplyAsync(this::execute);
+        }
+
+        /**
+         * Async variant of {@link #executeOneRow()}. The query must not be modified until the future completes.
+         */
+        public CompletableFuture<Optional<R>> executeOneRowAsync() {
+            return SQL.supplyAsync(this::executeOneRow);
+        }
+    }
+
+    /**
+     * Iterator over the pages of a {@link RowQuery}, created by {@link RowQuery#paginate(int, boolean)}.
+     * Remembers the seek column values of the last returned row and requests the next page with
+     * {@code (seekColumns) > (lastValues)} (or {@code <} for descending order).
+     * A row comparison never matches NULL, so a nullable orderBy column gets explicit NULL handling:
+     * NULLs sort first ascending and last descending, and after a NULL cursor only the primary key is compared.
+     *
+     * @param <G> The type of the table
+     * @param <R> The record type associated with the table
+     * @param <E> The enum type representing properties of the table
+     */
+    class KeysetPaginator<G extends Table<E, R>, R extends java.lang.Record & DatabaseRecord<R, E>, E extends Enum<E> & DatabaseProperty> implements Iterator<List<R>> {
+        private final G table;
+        private final List<E> seekColumns;
+        private final String firstPageQuery;
+        private final String nextPageQuery;
+        private final String afterNullPageQuery;
+        private final boolean nullableOrder;
+        private final List<Object> conditionParameters;
+        private final int pageSize;
+        private final boolean readAhead;
+        private int remaining;
+        private Object[] lastValues = null;
+        private CompletableFuture<List<R>> nextPage = null;
+        private boolean finished = false;
+
+        /**
+         * @param seekColumns The orderBy column, if any, followed by the primary key columns
+         * @param nullableOrder true if the first seek column is an orderBy column that may hold NULL
+         */
+        KeysetPaginator(G table, List<E> seekColumns, boolean nullableOrder, DatabaseInterface.Order order, String condition, List<Object> conditionParameters, int pageSize, int limit, boolean readAhead) {
+            this.table = table;
+            this.seekColumns = List.copyOf(seekColumns);
+            this.nullableOrder = nullableOrder;
+            this.conditionParameters = new ArrayList<>(conditionParameters);
+            this.pageSize = pageSize;
+            this.readAhead = readAhead;
+            this.remaining = limit < 0 ? Integer.MAX_VALUE : limit;
+
+            boolean ascending = order == DatabaseInterface.Order.ASCENDING;
+            String orderClause = " ORDER BY " + seekColumns.stream().map(c -> c.name() + " " + order.sql).collect(Collectors.joining(", ")) + " LIMIT ?";
+            String seekClause = seekClause(seekColumns, ascending);
+            String afterNullClause = null;
+            if (nullableOrder) {
+                String orderColumn = seekColumns.getFirst().name();
+                String keyClause = orderColumn + " IS NULL AND " + seekClause(seekColumns.subList(1, seekColumns.size()), ascending);
+                // Ascending the NULLs come first, so every non NULL value follows them. Descending they come last.
+                seekClause = ascending ? seekClause : "(" + seekClause + " OR " + orderColumn + " IS NULL)";
+                afterNullClause = ascending ? "(" + keyClause + " OR " + orderColumn + " IS NOT NULL)" : "(" + keyClause + ")";
+            }
+            String select = table.metadata().selectAll();
+            boolean conditional = condition != null && !condition.isBlank();
+            String where = conditional ? " WHERE (" + condition + ") AND " : " WHERE ";
+            this.firstPageQuery = select + (conditional ? " WHERE (" + condition + ")" : "") + orderClause;
+            this.nextPageQuery = select + where + seekClause + orderClause;
+            this.afterNullPageQuery = afterNullClause == null ? null : select + where + afterNullClause + orderClause;
+        }
+
+        private static String seekClause(List<? extends DatabaseProperty> columns, boolean ascending) {
+            return "(" + columns.stream().map(DatabaseProperty::name).collect(Collectors.joining(", ")) + ") " + (ascending ? ">" : "<") + " ("
+                    + IntStream.range(0, columns.size()).mapToObj(i -> "?").collect(Collectors.joining(", ")) + ")";
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (finished) return false;
+            if (nextPage == null) {
+                nextPage = CompletableFuture.completedFuture(fetch(lastValues, Math.min(pageSize, remaining)));
+            }
+            if (nextPage.join().isEmpty()) {
+                finished = true;
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public List<R> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<R> page = nextPage.join();
+            nextPage = null;
+            remaining -= page.size();
+            if (page.size() < pageSize || remaining <= 0) {
+                finished = true;
+                return page;
+            }
+            try {
+                R last = page.getLast();
+                Object[] values = new Object[seekColumns.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = Record.getValueByName(last, seekColumns.get(i).name());
+                }
+                lastValues = values;
+            } catch (Exception e) {
+                throwDBError(e);
+                finished = true;
+                return page;
+            }
+            if (readAhead) {
+                Object[] cursor = lastValues;
+                int size = Math.min(pageSize, remaining);
+                nextPage = SQL.supplyAsync(() -> fetch(cursor, size));
+            }
+            return page;
+        }
+
+        private List<R> fetch(Object[] cursor, int size) {
+            boolean afterNull = cursor != null && nullableOrder && cursor[0] == null;
+            String query = cursor == null ? firstPageQuery : afterNull ? afterNullPageQuery : nextPageQuery;
+            try (var connection = SQL.borrowReadConnection();
+                 var prepStatement = connection.prepareStatement(query)) {
+                int index = setParameters(prepStatement, conditionParameters, 1);
+                if (cursor != null) {
+                    for (int i = afterNull ? 1 : 0; i < cursor.length; i++) {
+                        setParameter(prepStatement, index++, cursor[i]);
+                    }
+                }
+                prepStatement.setInt(index, size);
+                try (var rs = prepStatement.executeQuery()) {
+                    List<R> rows = new ArrayList<>(size);
+                    while (rs.next()) {
+                        rows.add(table.recordMapper().map(rs, 0));
+                    }
+                    return rows;
+                }
+            } catch (Exception e) {
+                throwDBError(e);
+                return List.of();
+            }
+        }
     }
 
     /**
@@ -274,6 +697,7 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
     class BindingColumnsQuery<G extends Table<E, R>, R extends java.lang.Record & DatabaseRecord<R, E>, E extends Enum<E> & DatabaseProperty,U extends Table<I, A>, A extends java.lang.Record & DatabaseRecord<A, I>, I extends Enum<I> & DatabaseProperty> extends Query<BindingRowQuery<G,R,E,U,A,I>,U, I> {
         private final Table<?, ?> refTable;
         private final StringBuilder refTableQueryBase;
+        private final List<Object> refParameters;
         private final Table<?, ?> bindingTable;
         private final List<Binding<G,R,E,U,A,I>> bindings;
         private final Set<E> refColumns;
@@ -292,8 +716,24 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
          * @throws IllegalArgumentException if any parameter is null or if bindings are empty
          */
         public BindingColumnsQuery(G current, StringBuilder refTableQueryBase, U bindingTable, HashSet<E> refColumns, HashSet<I> bindingColumns, Binding<G,R,E,U,A,I>... bindings) {
+            this(current, refTableQueryBase, List.of(), bindingTable, refColumns, bindingColumns, bindings);
+        }
+
+        /**
+         * Constructs a BindingColumnsQuery for joining two tables and selecting specific columns.
+         *
+         * @param current The reference table
+         * @param refTableQueryBase The base query for the reference table (as a subquery)
+         * @param refParameters The values of the placeholders in refTableQueryBase, in order
+         * @param bindingTable The table to join with
+         * @param refColumns The columns to select from the reference table
+         * @param bindingColumns The columns to select from the binding table
+         * @param bindings The bindings defining the join conditions
+         * @throws IllegalArgumentException if any parameter is null or if bindings are empty
+         */
+        public BindingColumnsQuery(G current, StringBuilder refTableQueryBase, List<Object> refParameters, U bindingTable, HashSet<E> refColumns, HashSet<I> bindingColumns, Binding<G,R,E,U,A,I>... bindings) {
             super(bindingTable);
-            if (current == null || refTableQueryBase == null || bindingTable == null || refColumns == null || bindingColumns == null) {
+            if (current == null || refTableQueryBase == null || refParameters == null || bindingTable == null || refColumns == null || bindingColumns == null) {
                 throw new IllegalArgumentException("Parameters cannot be null");
             }
             if (bindings.length == 0) {
@@ -301,22 +741,29 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
             }
             this.refTable = current;
             this.refTableQueryBase = refTableQueryBase;
+            this.refParameters = List.copyOf(refParameters);
             this.bindingTable = bindingTable;
             this.refColumns = refColumns;
             this.bindingColumns =bindingColumns;
             this.bindings = Arrays.asList(bindings);
         }
 
+        @Override
+        protected List<String> tableNames() {
+            return List.of(refTable.tableName(), bindingTable.tableName());
+        }
+
         /**
          * Builds the base SQL query string for joining the reference and binding tables,
          * selecting only the specified columns.
          *
          * @param selectClause The SQL SELECT clause (ignored, as columns are predefined)
+         * @param parameters Receives the values of the placeholders in the query, in order
          * @return A StringBuilder containing the constructed SQL query
          * @throws IllegalStateException if no valid bindings are present
          */
         @Override
-        protected StringBuilder buildQueryBase(String selectClause) {
+        protected StringBuilder buildQueryBase(String selectClause, List<Object> parameters) {
             StringBuilder query = new StringBuilder("SELECT ");
             List<CharSequence> columns = new ArrayList<>();
             columns.addAll(refColumns.stream()
@@ -331,6 +778,7 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
             query.append(String.join(", ", columns));
 
             // FROM clause with refTableQueryBase as subquery and INNER JOIN
+            parameters.addAll(refParameters);
             query.append(" FROM (").append(refTableQueryBase).append(") AS ")
                     .append(refTable.tableName())
                     .append(" INNER JOIN ").append(bindingTable.tableName())
@@ -349,7 +797,7 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
 
             // Additional conditions
             if (conditionQuery != null) {
-                query.append(" WHERE ").append(conditionQuery.build());
+                query.append(" WHERE ").append(conditionQuery.build(parameters));
             }
             if (groupBy != null) {
                 query.append(" GROUP BY ").append(groupBy.name());
@@ -358,7 +806,8 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
                 query.append(" ORDER BY ").append(orderBy.name()).append(" ").append(order.sql);
             }
             if (limit != -1) {
-                query.append(" LIMIT ").append(limit);
+                query.append(" LIMIT ?");
+                parameters.add(limit);
             }
 
             return query;
@@ -372,22 +821,34 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
          *         to binding table column values, or empty if an error occurs
          */
         public Optional<HashMap<HashMap<E, Object>, HashMap<I, Object>>> execute() {
-            String query = buildQueryBase("*").toString();
-            try (var prepStatement = SQL.getConnection().get().prepareStatement(query);
-                 var rs = prepStatement.executeQuery()) {
-                HashMap<HashMap<E, Object>, HashMap<I, Object>> result = new HashMap<>();
-                while (rs.next()) {
-                    HashMap<E, Object> refRow = new HashMap<>();
-                    for (E column : refColumns) {
-                        refRow.put(column, InterDefinitions.getTypedValue(rs, column, refTable));
-                    }
-                    HashMap<I, Object> bindingRow = new HashMap<>();
-                    for (I column : bindingColumns) {
-                        bindingRow.put(column, InterDefinitions.getTypedValue(rs, column, bindingTable));
+            List<Object> parameters = new ArrayList<>();
+            String query = buildQueryBase("*", parameters).toString();
+            try {
+                return executeCached(query, parameters, () -> {
+                    try (var connection = SQL.borrowReadConnection();
+                         var prepStatement = prepareStatement(connection, query, parameters);
+                         var rs = prepStatement.executeQuery()) {
+                        HashMap<HashMap<E, Object>, HashMap<I, Object>> result = new HashMap<>();
+                        while (rs.next()) {
+                            // Columns are read in the order buildQueryBase selected them
+                            int index = 1;
+                            HashMap<E, Object> refRow = new HashMap<>();
+                            for (E column : refColumns) {
+                                refRow.put(column, InterDefinitions.getTypedValue(rs, index++, column));
+                            }
+                            HashMap<I, Object> bindingRow = new HashMap<>();
+                            for (I column : bindingColumns) {
+                                bindingRow.put(column, InterDefinitions.getTypedValue(rs, index++, column));
+                            }
+                            result.put(refRow, bindingRow);
+                        }
+                        return Optional.ofNullable(result.isEmpty() ? null : result);
                     }
-                    result.put(refRow, bindingRow);
-                }
-                return Optional.ofNullable(result.isEmpty() ? null : result);
+                }, result -> result.map(rows -> {
+                    HashMap<HashMap<E, Object>, HashMap<I, Object>> copy = new HashMap<>();
+                    rows.forEach((refRow, bindingRow) -> copy.put(new HashMap<>(refRow), new HashMap<>(bindingRow)));
+                    return copy;
+                }));
             } catch (Exception e) {
                 throwDBError(e);
                 return Optional.empty();
@@ -409,6 +870,13 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
                 this.limitBy(cLimit);
             }
         }
+
+        /**
+         * Async variant of {@link #execute()}. The query must not be modified until the future completes.
+         */
+        public CompletableFuture<Optional<HashMap<HashMap<E, Object>, HashMap<I, Object>>>> executeAsync() {
+            return SQL.supplyAsync(this::execute);
+        }
     }
 
     /**
@@ -426,6 +894,7 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
     class BindingRowQuery<G extends Table<E, R>, R extends java.lang.Record & DatabaseRecord<R, E>, E extends Enum<E> & DatabaseProperty,U extends Table<I, A>, A extends java.lang.Record & DatabaseRecord<A, I>, I extends Enum<I> & DatabaseProperty> extends Query<BindingRowQuery<G,R,E,U,A,I>, U,I> {
         private final G refTable;
         private final StringBuilder refTableQueryBase;
+        private final List<Object> refParameters;
         private final List<Binding<G, R, E, U, A, I>> bindings;
 
         /**
@@ -438,8 +907,22 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
          * @throws IllegalArgumentException if any parameter is null or if bindings are empty
          */
         public BindingRowQuery(G current, StringBuilder refTableQueryBase, U bindingTable, Binding<G, R, E, U, A, I>... bindings) {
+            this(current, refTableQueryBase, List.of(), bindingTable, bindings);
+        }
+
+        /**
+         * Constructs a BindingRowQuery for joining two tables.
+         *
+         * @param current The reference table
+         * @param refTableQueryBase The base query for the reference table (as a subquery)
+         * @param refParameters The values of the placeholders in refTableQueryBase, in order
+         * @param bindingTable The table to join with
+         * @param bindings The bindings defining the join conditions
+         * @throws IllegalArgumentException if any parameter is null or if bindings are empty
+         */
+        public BindingRowQuery(G current, StringBuilder refTableQueryBase, List<Object> refParameters, U bindingTable, Binding<G, R, E, U, A, I>... bindings) {
             super(bindingTable);
-            if (current == null || refTableQueryBase == null || bindingTable == null) {
+            if (current == null || refTableQueryBase == null || refParameters == null || bindingTable == null) {
                 throw new IllegalArgumentException("Parameters cannot be null");
             }
             if (bindings.length == 0) {
@@ -447,34 +930,32 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
             }
             this.refTable = current;
             this.refTableQueryBase = refTableQueryBase;
+            this.refParameters = List.copyOf(refParameters);
             this.bindings = List.of(bindings); // Immutable list for efficiency
         }
 
+        @Override
+        protected List<String> tableNames() {
+            return List.of(refTable.tableName(), this.table.tableName());
+        }
+
         /**
          * Builds the base SQL query string for joining the reference and binding tables,
          * selecting all columns from both tables.
          *
          * @param selectClause The SQL SELECT clause (ignored, as all columns are selected)
+         * @param parameters Receives the values of the placeholders in the query, in order
          * @return A StringBuilder containing the constructed SQL query
          * @throws IllegalStateException if no valid bindings are present
          */
         @Override
-        protected StringBuilder buildQueryBase(String selectClause) {
+        protected StringBuilder buildQueryBase(String selectClause, List<Object> parameters) {
             StringBuilder query = new StringBuilder("SELECT ");
-            // Combine column names from refTable and bindingTable
-            List<CharSequence> columns = new ArrayList<>();
-            columns.addAll(refTable.getProperties().stream()
-                    .map(p -> refTable.tableName() + "." + p.name())
-                    .toList());
-            columns.addAll(this.table.getProperties().stream()
-                    .map(p -> this.table.tableName() + "." + p.name())
-                    .toList());
-            if (columns.isEmpty()) {
-                throw new IllegalStateException("No columns available for selection");
-            }
-            query.append(String.join(", ", columns));
+            // Columns of refTable followed by the columns of bindingTable, both in declaration order
+            query.append(refTable.metadata().qualifiedColumnList()).append(", ").append(this.table.metadata().qualifiedColumnList());
 
             // FROM clause with refTableQueryBase as subquery and INNER JOIN
+            parameters.addAll(refParameters);
             query.append(" FROM (").append(refTableQueryBase).append(") AS ")
                     .append(refTable.tableName())
                     .append(" INNER JOIN ").append(this.table.tableName())
@@ -493,7 +974,7 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
 
             // Additional conditions
             if (conditionQuery != null) {
-                query.append(" WHERE ").append(conditionQuery.build());
+                query.append(" WHERE ").append(conditionQuery.build(parameters));
             }
             if (groupBy != null) {
                 query.append(" GROUP BY ").append(groupBy.name());
@@ -502,7 +983,8 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
                 query.append(" ORDER BY ").append(orderBy.name()).append(" ").append(order.sql);
             }
             if (limit != -1) {
-                query.append(" LIMIT ").append(limit);
+                query.append(" LIMIT ?");
+                parameters.add(limit);
             }
 
             return query;
@@ -515,14 +997,22 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
          *         or empty if an error occurs
          */
         public Optional<HashMap<R, A>> execute() {
-            String query = buildQueryBase("*").toString();
-            try (var prepStatement = SQL.getConnection().get().prepareStatement(query);
-                 var rs = prepStatement.executeQuery()) {
-                HashMap<R, A> rows = new HashMap<>();
-                while (rs.next()) {
-                    rows.put((R)Record.populateRecord(refTable, rs,true),(A)Record.populateRecord(this.table, rs,true));
-                }
-                return Optional.ofNullable(rows.isEmpty() ? null : rows);
+            List<Object> parameters = new ArrayList<>();
+            String query = buildQueryBase("*", parameters).toString();
+            RecordMapper<R> refMapper = refTable.recordMapper();
+            RecordMapper<A> bindingMapper = this.table.recordMapper();
+            try {
+                return executeCached(query, parameters, () -> {
+                    try (var connection = SQL.borrowReadConnection();
+                         var prepStatement = prepareStatement(connection, query, parameters);
+                         var rs = prepStatement.executeQuery()) {
+                        HashMap<R, A> rows = new HashMap<>();
+                        while (rs.next()) {
+                            rows.put(refMapper.map(rs, 0), bindingMapper.map(rs, refMapper.columnCount()));
+                        }
+                        return Optional.ofNullable(rows.isEmpty() ? null : rows);
+                    }
+                }, result -> result.map(HashMap::new));
             } catch (Exception e) {
                 throwDBError(e);
                 return Optional.empty();
@@ -545,6 +1035,13 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
                 this.limitBy(cLimit);
             }
         }
+
+        /**
+         * Async variant of {@link #execute()}. The query must not be modified until the future completes.
+         */
+        public CompletableFuture<Optional<HashMap<R, A>>> executeAsync() {
+            return SQL.supplyAsync(this::execute);
+        }
     }
 
 
@@ -589,7 +1086,10 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
             if (bindings.length == 0) {
                 throw new IllegalArgumentException("At least one binding is required");
             }
-            return new BindingColumnsQuery<>(table, buildQueryBase(returnColumn.name()), joinTable, new HashSet<>(Arrays.asList(returnColumn)),resultColumns.getHashSet(), bindings);
+            requireUnsharded(table, "Join");
+            requireUnsharded(joinTable, "Join");
+            List<Object> parameters = new ArrayList<>();
+            return new BindingColumnsQuery<>(table, buildQueryBase(returnColumn.name(), parameters), parameters, joinTable, new HashSet<>(Arrays.asList(returnColumn)),resultColumns.getHashSet(), bindings);
         }
 
         /**
@@ -599,15 +1099,25 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
          *         or empty if an error occurs
          */
         public Optional<List<Object>> execute() {
-            String query = buildQueryBase(returnColumn.name()).toString();
+            if (sharding() != null) {
+                return copySettings(new ColumnsQuery<G, R, E>(table, returnColumn)).execute()
+                        .map(rows -> rows.stream().map(row -> row.get(returnColumn)).collect(Collectors.toCollection(ArrayList::new)));
+            }
+            List<Object> parameters = new ArrayList<>();
+            String query = buildQueryBase(returnColumn.name(), parameters).toString();
             System.out.println(query);
-            try (var prepStatement = SQL.getConnection().get().prepareStatement(query);
-                 var rs = prepStatement.executeQuery()) {
-                List<Object> results = new ArrayList<>();
-                while (rs.next()) {
-                    results.add(DatabaseInterface.getTypedValue(rs, returnColumn));
-                }
-                return Optional.ofNullable(results.isEmpty() ? null : results);
+            try {
+                return executeCached(query, parameters, () -> {
+                    try (var connection = SQL.borrowReadConnection();
+                         var prepStatement = prepareStatement(connection, query, parameters);
+                         var rs = prepStatement.executeQuery()) {
+                        List<Object> results = new ArrayList<>();
+                        while (rs.next()) {
+                            results.add(DatabaseInterface.getTypedValue(rs, 1, returnColumn));
+                        }
+                        return Optional.ofNullable(results.isEmpty() ? null : results);
+                    }
+                }, result -> result.map(ArrayList::new));
             } catch (Exception e) {
                 throwDBError(e);
                 return Optional.empty();
@@ -615,6 +1125,17 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
         }
 
 
+        /**
+         * Compiles the query into a reusable, thread-safe {@link PreparedQuery}.
+         * Use {@link QueryBuilder#param()} or {@link QueryBuilder#param(String)} as condition value for values supplied on execution.
+         *
+         * @return The compiled query returning the values of the selected column
+         */
+        public PreparedQuery<Object> compile() {
+            E column = returnColumn;
+            return compile(column.name(), rs -> DatabaseInterface.getTypedValue(rs, 1, column));
+        }
+
         /**
          * Executes the query and returns the first value of the selected column.
          *
@@ -630,6 +1151,13 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
                 this.limitBy(cLimit);
             }
         }
+
+        /**
+         * Async variant of {@link #execute()}. The query must not be modified until the future completes.
+         */
+        public CompletableFuture<Optional<List<Object>>> executeAsync() {
+            return SQL.supplyAsync(this::execute);
+        }
     }
 
     /**
@@ -701,7 +1229,10 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
             if (bindings.length == 0) {
                 throw new IllegalArgumentException("At least one binding is required");
             }
-            return new BindingColumnsQuery<>(table, buildQueryBase(String.join(",", returnColumns.stream().map(E::name).toArray(String[]::new))), joinTable, new HashSet<E>(returnColumns),resultColumns.getHashSet(), bindings);
+            requireUnsharded(table, "Join");
+            requireUnsharded(joinTable, "Join");
+            List<Object> parameters = new ArrayList<>();
+            return new BindingColumnsQuery<>(table, buildQueryBase(String.join(",", returnColumns.stream().map(E::name).toArray(String[]::new)), parameters), parameters, joinTable, new HashSet<E>(returnColumns),resultColumns.getHashSet(), bindings);
         }
 
 
@@ -712,24 +1243,64 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
          *         or empty if an error occurs
          */
         public Optional<List<Map<E, Object>>> execute() {
-            String query = buildQueryBase(String.join(",", returnColumns.stream().map(E::name).toArray(String[]::new))).toString();
-            try (var prepStatement = SQL.getConnection().get().prepareStatement(query);
-                 var rs = prepStatement.executeQuery()) {
-                List<Map<E, Object>> results = new ArrayList<>();
-                while (rs.next()) {
-                    Map<E, Object> row = new HashMap<>();
-                    for (E column : returnColumns) {
-                        row.put(column, DatabaseInterface.getTypedValue(rs, column));
+            Sharding<E> sharding = sharding();
+            List<E> columns = new ArrayList<>(returnColumns);
+            boolean orderColumnAdded = sharding != null && orderBy != null && !returnColumns.contains(orderBy);
+            if (orderColumnAdded) columns.add(orderBy); // The rows of the shards are merged by it
+            List<Object> parameters = new ArrayList<>();
+            String query = buildQueryBase(String.join(",", columns.stream().map(E::name).toArray(String[]::new)), parameters).toString();
+            try {
+                Callable<Optional<List<Map<E, Object>>>> read = () -> {
+                    try (var connection = SQL.borrowReadConnection();
+                         var prepStatement = prepareStatement(connection, query, parameters);
+                         var rs = prepStatement.executeQuery()) {
+                        List<Map<E, Object>> results = new ArrayList<>();
+                        while (rs.next()) {
+                            Map<E, Object> row = new HashMap<>();
+                            int index = 1;
+                            for (E column : columns) {
+                                row.put(column, DatabaseInterface.getTypedValue(rs, index++, column));
+                            }
+                            results.add(row);
+                        }
+                        return Optional.ofNullable(results.isEmpty() ? null : results);
                     }
-                    results.add(row);
-                }
-                return Optional.ofNullable(results.isEmpty() ? null : results);
+                };
+                return executeCached(query, parameters, sharding == null ? read : () -> {
+                    Optional<List<Map<E, Object>>> rows = executeOnShards(sharding, read, orderBy == null ? null : Sharding.columnOrder(row -> row.get(orderBy), order));
+                    if (orderColumnAdded) rows.ifPresent(merged -> merged.forEach(row -> row.remove(orderBy)));
+                    return rows;
+                }, result -> result.map(rows -> {
+                    List<Map<E, Object>> copy = new ArrayList<>(rows.size());
+                    for (Map<E, Object> row : rows) {
+                        copy.add(new HashMap<>(row));
+                    }
+                    return copy;
+                }));
             } catch (Exception e) {
                 throwDBError(e);
                 return Optional.empty();
             }
         }
 
+        /**
+         * Compiles the query into a reusable, thread-safe {@link PreparedQuery}.
+         * Use {@link QueryBuilder#param()} or {@link QueryBuilder#param(String)} as condition value for values supplied on execution.
+         *
+         * @return The compiled query returning maps of the selected column values
+         */
+        public PreparedQuery<Map<E, Object>> compile() {
+            List<E> columns = List.copyOf(returnColumns);
+            return compile(String.join(",", columns.stream().map(E::name).toArray(String[]::new)), rs -> {
+                Map<E, Object> row = new HashMap<>();
+                int index = 1;
+                for (E column : columns) {
+                    row.put(column, DatabaseInterface.getTypedValue(rs, index++, column));
+                }
+                return row;
+            });
+        }
+
         /**
          * Executes the query and returns the first row of selected column values.
          * Optimizes the query by directly applying LIMIT 1.
@@ -746,9 +1317,245 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
                 this.limitBy(cLimit);
             }
         }
+
+        /**
+         * Async variant of {@link #execute()}. The query must not be modified until the future completes.
+         */
+        public CompletableFuture<Optional<List<Map<E, Object>>>> executeAsync() {
+            return SQL.supplyAsync(this::execute);
+        }
     }
 
 
+    /**
+     * Placeholder for a condition value that is supplied when a compiled query is executed.
+     * Unnamed parameters are bound by position, named parameters by name or in order of first appearance.
+     *
+     * @param name The name of the parameter, or null for a positional parameter
+     */
+    record Parameter(String name) {}
+
+    /**
+     * @return A positional parameter slot for a condition of a query that is compiled
+     */
+    static Parameter param() {
+        return new Parameter(null);
+    }
+
+    /**
+     * @param name Name the value is bound by
+     * @return A named parameter slot for a condition of a query that is compiled
+     */
+    static Parameter param(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Parameter name cannot be empty");
+        }
+        return new Parameter(name);
+    }
+
+    /**
+     * An immutable, thread-safe query created by {@code compile()} of a query.
+     * The SQL of the query and its exists/count variants is rendered once; executing only binds the values of the
+     * parameter slots and runs the statement, so one instance can be shared and executed concurrently.
+     *
+     * @param <T> The type of a result row
+     */
+    final class PreparedQuery<T> {
+        private final String query;
+        private final String existsQuery;
+        private final String countQuery;
+        private final List<Object> queryParameters;
+        private final List<Object> existsParameters;
+        private final List<Object> countParameters;
+        private final List<String> parameterNames;
+        private final ResultSetMapper<T> mapper;
+
+        /**
+         * Slot of a parameter in the ordered parameter list of a statement
+         */
+        record Slot(String name, DatabaseProperty column) {}
+
+        PreparedQuery(String query, List<Object> queryParameters, String existsQuery, List<Object> existsParameters,
+                      String countQuery, List<Object> countParameters, ResultSetMapper<T> mapper) {
+            this.query = query;
+            this.existsQuery = existsQuery;
+            this.countQuery = countQuery;
+            this.queryParameters = nameSlots(queryParameters);
+            this.existsParameters = nameSlots(existsParameters);
+            this.countParameters = nameSlots(countParameters);
+            this.mapper = mapper;
+            List<String> names = new ArrayList<>();
+            for (Object parameter : this.queryParameters) {
+                if (parameter instanceof Slot slot && !names.contains(slot.name())) {
+                    names.add(slot.name());
+                }
+            }
+            this.parameterNames = List.copyOf(names);
+        }
+
+        /**
+         * Gives positional slots the name "?n", n counting the positional slots from 1
+         */
+        private static List<Object> nameSlots(List<Object> parameters) {
+            List<Object> named = new ArrayList<>(parameters.size());
+            int position = 0;
+            for (Object parameter : parameters) {
+                if (parameter instanceof Slot slot && slot.name() == null) {
+                    parameter = new Slot("?" + (++position), slot.column());
+                }
+                named.add(parameter);
+            }
+            return Collections.unmodifiableList(named);
+        }
+
+        /**
+         * @return The rendered SQL of the query
+         */
+        public String sql() {
+            return query;
+        }
+
+        /**
+         * @return Names of the parameter slots in order of first appearance, positional slots are named "?1", "?2", ...
+         */
+        public List<String> parameterNames() {
+            return parameterNames;
+        }
+
+        /**
+         * Executes the query with the values of all parameter slots in the order of {@link #parameterNames()}.
+         *
+         * @return An Optional containing the result rows, or empty if no rows match or an error occurs
+         */
+        public Optional<List<T>> execute(Object... values) {
+            try {
+                return execute(bindByPosition(values));
+            } catch (Exception e) {
+                throwDBError(e);
+                return Optional.empty();
+            }
+        }
+
+        /**
+         * Executes the query with the values of the parameter slots by name.
+         *
+         * @return An Optional containing the result rows, or empty if no rows match or an error occurs
+         */
+        public Optional<List<T>> execute(Map<String, ?> values) {
+            try (var connection = SQL.borrowReadConnection();
+                 var prepStatement = prepareStatement(connection, query, bind(queryParameters, values));
+                 var rs = prepStatement.executeQuery()) {
+                List<T> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+                return Optional.ofNullable(rows.isEmpty() ? null : rows);
+            } catch (Exception e) {
+                throwDBError(e);
+                return Optional.empty();
+            }
+        }
+
+        /**
+         * Executes the query and returns the first result row.
+         *
+         * @return An Optional containing the first row, or empty if no rows match or an error occurs
+         */
+        public Optional<T> executeOneRow(Object... values) {
+            return execute(values).map(List::getFirst);
+        }
+
+        /**
+         * Checks if at least one row matches, with the values of all parameter slots in order.
+         */
+        public boolean exists(Object... values) {
+            try {
+                return exists(bindByPosition(values));
+            } catch (Exception e) {
+                throwDBError(e);
+                return false;
+            }
+        }
+
+        /**
+         * Checks if at least one row matches, with the values of the parameter slots by name.
+         */
+        public boolean exists(Map<String, ?> values) {
+            try (var connection = SQL.borrowReadConnection();
+                 var prepStatement = prepareStatement(connection, existsQuery, bind(existsParameters, values));
+                 var rs = prepStatement.executeQuery()) {
+                return rs.next();
+            } catch (Exception e) {
+                throwDBError(e);
+                return false;
+            }
+        }
+
+        /**
+         * Counts the matching rows, with the values of all parameter slots in order.
+         */
+        public long count(Object... values) {
+            try {
+                return count(bindByPosition(values));
+            } catch (Exception e) {
+                throwDBError(e);
+                return 0L;
+            }
+        }
+
+        /**
+         * Counts the matching rows, with the values of the parameter slots by name.
+         */
+        public long count(Map<String, ?> values) {
+            try (var connection = SQL.borrowReadConnection();
+                 var prepStatement = prepareStatement(connection, countQuery, bind(countParameters, values));
+                 var rs = prepStatement.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            } catch (Exception e) {
+                throwDBError(e);
+                return 0L;
+            }
+        }
+
+        /**
+         * Async variant of {@link #execute(Object...)}
+         */
+        public CompletableFuture<Optional<List<T>>> executeAsync(Object... values) {
+            return SQL.supplyAsync(() -> execute(values));
+        }
+
+        private Map<String, Object> bindByPosition(Object[] values) {
+            if (values == null) values = new Object[] {null};
+            if (values.length != parameterNames.size()) {
+                throw new IllegalArgumentException("Expected " + parameterNames.size() + " parameter values, got " + values.length);
+            }
+            Map<String, Object> named = new HashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                named.put(parameterNames.get(i), values[i]);
+            }
+            return named;
+        }
+
+        private static List<Object> bind(List<Object> parameters, Map<String, ?> values) throws Exception {
+            List<Object> bound = new ArrayList<>(parameters.size());
+            for (Object parameter : parameters) {
+                if (parameter instanceof Slot slot) {
+                    if (!values.containsKey(slot.name())) {
+                        throw new IllegalArgumentException("No value for parameter " + slot.name());
+                    }
+                    Object value = SQLInputFilter.filterBoundInput(values.get(slot.name())); // Filter SQL Injection
+                    if (!slot.column().getType().getTypeClass().isInstance(value)) {
+                        throw new InvalidParameterException("Invalid value type for " + slot.column().name() + ": "
+                                + (value == null ? "null" : value.getClass().getName()) + ", expected: " + slot.column().getType().name());
+                    }
+                    parameter = value;
+                }
+                bound.add(parameter);
+            }
+            return bound;
+        }
+    }
+
      class ConditionQueryBuilder<E extends Enum<E> & DatabaseProperty> implements Cloneable {
         Condition<E> initalCondition;
         Queue<Map.Entry<Condition<E>,ConditionType>> conditions = new LinkedList<>();
@@ -769,16 +1576,21 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
             return updated;
         }
 
-        protected StringBuilder build() {
+        /**
+         * Builds the condition with a placeholder for every value. The builder is not modified,
+         * so identical conditions render to the same SQL and can be built again.
+         *
+         * @param parameters Receives the condition values in placeholder order
+         * @return The condition without leading WHERE, or null if the initial condition has an invalid value type
+         */
+        protected StringBuilder build(List<Object> parameters) {
             if (initalCondition == null) return new StringBuilder();
             StringBuilder query = new StringBuilder();
             if (initalCondition.typeCheck()) {
-                query = appendCondition(query,initalCondition,null);
-                Map.Entry<Condition<E>,ConditionType> condition;
-                while((condition = conditions.poll()) != null) {
-                    query = appendCondition(query,condition.getKey(),condition.getValue());
+                query = appendCondition(query,initalCondition,null,parameters);
+                for (Map.Entry<Condition<E>,ConditionType> condition : conditions) {
+                    query = appendCondition(query,condition.getKey(),condition.getValue(),parameters);
                 }
-                query.insert(0, "WHERE ");
                 return query;
             } else {
                 initalCondition.throwInputError();
@@ -786,11 +1598,12 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
             }
         }
 
-        private StringBuilder appendCondition(StringBuilder currentQuery,Condition condition,ConditionType conditionType) {
+        private StringBuilder appendCondition(StringBuilder currentQuery,Condition<E> condition,ConditionType conditionType,List<Object> parameters) {
             StringBuilder conditionQuery = new StringBuilder();
             conditionQuery.append(condition.column.name());
             conditionQuery.append(condition.operator.sql);
-            appendParameter(conditionQuery,condition.value);
+            conditionQuery.append('?');
+            parameters.add(condition.value instanceof Parameter parameter ? new PreparedQuery.Slot(parameter.name(), condition.column) : condition.value);
 
             if (conditionType != null) {
                 switch (conditionType) {
@@ -814,7 +1627,9 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
         @Override
         protected ConditionQueryBuilder<E> clone() {
             try {
-                return (ConditionQueryBuilder<E>) super.clone();
+                ConditionQueryBuilder<E> copy = (ConditionQueryBuilder<E>) super.clone();
+                copy.conditions = new LinkedList<>(conditions);
+                return copy;
             } catch (CloneNotSupportedException e) {
                 throw new RuntimeException(e);
             }
@@ -876,11 +1691,11 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
         public CompareOperator operator;
 
         public void throwInputError() {
-            System.out.println("Invalid value type for " + column.name() + ": " + value.getClass().getName() +", expected: " + column.getType().name());
+            System.out.println("Invalid value type for " + column.name() + ": " + (value == null ? "null" : value.getClass().getName()) +", expected: " + column.getType().name());
         }
 
         public boolean typeCheck() {
-            if (column.getType().getTypeClass().isInstance(value)) {
+            if (value instanceof Parameter || column.getType().getTypeClass().isInstance(value)) {
                 if (operator != CompareOperator.EQUALS) {
                     return column.getType().getTypeClass() != String.class;
                 }
@@ -892,7 +1707,11 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
 
         public Condition(E conditionColumn, CompareOperator comparisonOperator, Object conditionValue) {
             this.column = conditionColumn;
-            this.value = conditionValue;
+            try {
+                this.value = SQLInputFilter.filterBoundInput(conditionValue); // Filter SQL Injection
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Could not filter value for " + conditionColumn, e);
+            }
             this.operator = comparisonOperator;
         }
 
@@ -901,6 +1720,7 @@ public interface QueryBuilder<G extends Table<E, R>, R extends java.lang.Record
 
 
     private static void throwDBError(Exception e){
+        SQL.reportError(e);
         e.printStackTrace();
     }
 
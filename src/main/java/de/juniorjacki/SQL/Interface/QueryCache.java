@@ -0,0 +1,217 @@
+package de.juniorjacki.SQL.Interface;
+
+import de.juniorjacki.SQL.SQL;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache of query results keyed by SQL and parameters, bounded by the estimated size of the cached results.
+ * Every Table has a version that is raised by each write through its DatabaseInterface, a result is only
+ * returned while the versions of all tables it was read from are unchanged. Errors are never cached.
+ * Least recently used results are evicted once the byte budget is exceeded.
+ * Results are read from the primary, a lagging replica could return a result older than the versions it is stored under.
+ */
+public final class QueryCache {
+
+    private static final long ENTRY_OVERHEAD = 128;
+    private static final ClassValue<Method[]> recordAccessors = new ClassValue<>() {
+        @Override
+        protected Method[] computeValue(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            Method[] accessors = new Method[components.length];
+            for (int i = 0; i < components.length; i++) {
+                accessors[i] = components[i].getAccessor();
+                accessors[i].trySetAccessible();
+            }
+            return accessors;
+        }
+    };
+
+    private record Key(String sql, List<?> parameters) {}
+
+    private record Entry(Object value, long bytes, long expiresAt, List<String> tables, long[] versions) {}
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    private volatile long maxBytes;
+    private long usedBytes = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxBytes Budget for the estimated size of all cached results
+     */
+    public QueryCache(long maxBytes) {
+        setMaxBytes(maxBytes);
+    }
+
+    /**
+     * Sets the budget for the estimated size of all cached results, 0 disables caching
+     */
+    public void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Invalid cache budget: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        synchronized (this) {
+            evict();
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the cached result of the statement, or reads and caches it
+     * @param sql Rendered statement
+     * @param parameters Bound parameter values
+     * @param tables Names of all tables the statement reads
+     * @param ttl Time the result stays cached
+     * @param read Database call, run with its reads on the primary. Exceptions are passed on and not cached
+     * @param copy Copies a result, so callers can not modify the cached instance
+     * @return A copy of the cached or read result
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(String sql, List<?> parameters, List<String> tables, Duration ttl, Callable<V> read, UnaryOperator<V> copy) throws Exception {
+        Key key = new Key(sql, Collections.unmodifiableList(new ArrayList<>(parameters)));
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() - System.nanoTime() > 0 && Arrays.equals(entry.versions(), versions(entry.tables()))) {
+                    hits.increment();
+                    return copy.apply((V) entry.value());
+                }
+                entries.remove(key);
+                usedBytes -= entry.bytes();
+            }
+        }
+        misses.increment();
+        long[] versions = versions(tables);
+        V value = SQL.readFromPrimary(read::call); // A replica may not have applied the write that raised the versions yet
+        long bytes = ENTRY_OVERHEAD + estimateBytes(sql) + estimateBytes(key.parameters()) + estimateBytes(value);
+        if (bytes <= maxBytes) {
+            Entry entry = new Entry(value, bytes, System.nanoTime() + ttl.toNanos(), List.copyOf(tables), versions);
+            synchronized (this) {
+                Entry previous = entries.put(key, entry);
+                if (previous != null) usedBytes -= previous.bytes();
+                usedBytes += bytes;
+                evict();
+            }
+        }
+        return copy.apply(value);
+    }
+
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private long[] versions(List<String> tables) {
+        long[] versions = new long[tables.size()];
+        for (int i = 0; i < versions.length; i++) {
+            AtomicLong version = tableVersions.get(tables.get(i));
+            versions[i] = version == null ? 0 : version.get();
+        }
+        return versions;
+    }
+
+    /**
+     * Invalidates all cached results read from the table
+     */
+    public void invalidate(String tableName) {
+        tableVersions.computeIfAbsent(tableName, name -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Removes all cached results
+     */
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * @return Estimated size of all cached results in bytes
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Roughly estimates the heap size of a query result
+     */
+    static long estimateBytes(Object value) {
+        return switch (value) {
+            case null -> 0;
+            case String s -> 40 + 2L * s.length();
+            case Number n -> 16;
+            case Boolean b -> 16;
+            case Enum<?> e -> 8;
+            case UUID uuid -> 32;
+            case byte[] bytes -> 16 + bytes.length;
+            case Optional<?> optional -> 16 + estimateBytes(optional.orElse(null));
+            case Collection<?> collection -> {
+                long size = 32 + 8L * collection.size();
+                for (Object element : collection) {
+                    size += estimateBytes(element);
+                }
+                yield size;
+            }
+            case Map<?, ?> map -> {
+                long size = 48 + 36L * map.size();
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    size += estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+                }
+                yield size;
+            }
+            case Record record -> {
+                long size = 16;
+                for (Method accessor : recordAccessors.get(record.getClass())) {
+                    try {
+                        size += 8 + estimateBytes(accessor.invoke(record));
+                    } catch (ReflectiveOperationException e) {
+                        size += 64;
+                    }
+                }
+                yield size;
+            }
+            default -> 40 + 2L * String.valueOf(value).length();
+        };
+    }
+}
@@ -0,0 +1,221 @@
+package de.juniorjacki.SQL.Interface;
+
+import de.juniorjacki.SQL.Connection.SQLConnection;
+import de.juniorjacki.SQL.SQL;
+import de.juniorjacki.SQL.Structure.DatabaseProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Distribution of the rows of a Table over several databases by the value of one key column.
+ * Operations naming a value of the shard column run on the one shard holding it, other reads are sent to all shards
+ * in parallel and their results merged. A row never moves between shards, so the shard column can not be updated.
+ *
+ * @param shardColumn Key column whose value selects the shard of a row
+ * @param shards Databases holding the rows, their order must never change once rows are written
+ * @param shardFunction Maps a value of the shard column to the index of its shard
+ * @param <E> The enum type representing properties of the Table
+ */
+public record Sharding<E extends Enum<E> & DatabaseProperty>(E shardColumn, List<SQLConnection.dbKey> shards, ShardFunction shardFunction) {
+
+    public Sharding {
+        if (shardColumn == null || shards == null || shardFunction == null) {
+            throw new IllegalArgumentException("Shard column, shards and shard function cannot be null");
+        }
+        if (!shardColumn.isKey()) {
+            throw new IllegalArgumentException("Shard column must be a key column: " + shardColumn);
+        }
+        if (shards.isEmpty() || shards.contains(null) || new HashSet<>(shards).size() != shards.size()) {
+            throw new IllegalArgumentException("Shards must be distinct and not empty: " + shards);
+        }
+        shards = List.copyOf(shards);
+    }
+
+    /**
+     * Shards by {@link ShardFunction#hash()}
+     */
+    public Sharding(E shardColumn, List<SQLConnection.dbKey> shards) {
+        this(shardColumn, shards, ShardFunction.hash());
+    }
+
+    /**
+     * Maps a value of the shard column to a shard index
+     */
+    @FunctionalInterface
+    public interface ShardFunction {
+        int shardOf(Object keyValue, int shardCount);
+
+        /**
+         * Spreads the values evenly by hash. Strings, numbers, UUIDs, enums and byte arrays hash the same in every JVM,
+         * other types need a hashCode that does not change between runs.
+         */
+        static ShardFunction hash() {
+            return (keyValue, shardCount) -> {
+                int hash = switch (keyValue) {
+                    case null -> 0;
+                    case byte[] bytes -> Arrays.hashCode(bytes);
+                    case Enum<?> value -> value.name().hashCode();
+                    default -> keyValue.hashCode();
+                };
+                hash *= 0x9E3779B9; // Spread sequential values
+                return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+            };
+        }
+
+        /**
+         * Assigns ranges of values to the shards in order: shard i holds the values below upperBounds[i],
+         * the last shard holds all values from the last bound on
+         * @param upperBounds One bound less than there are shards, ascending
+         */
+        static <T extends Comparable<? super T>> ShardFunction range(List<T> upperBounds) {
+            if (upperBounds == null || upperBounds.contains(null)) {
+                throw new IllegalArgumentException("Upper bounds cannot be null");
+            }
+            List<T> bounds = List.copyOf(upperBounds);
+            for (int i = 1; i < bounds.size(); i++) {
+                if (bounds.get(i - 1).compareTo(bounds.get(i)) >= 0) {
+                    throw new IllegalArgumentException("Upper bounds must be ascending: " + bounds);
+                }
+            }
+            return (keyValue, shardCount) -> {
+                if (bounds.size() != shardCount - 1) {
+                    throw new IllegalStateException("Expected " + (shardCount - 1) + " upper bounds for " + shardCount + " shards, got " + bounds.size());
+                }
+                @SuppressWarnings("unchecked")
+                T value = (T) keyValue;
+                int shard = 0;
+                while (shard < bounds.size() && value.compareTo(bounds.get(shard)) >= 0) {
+                    shard++;
+                }
+                return shard;
+            };
+        }
+    }
+
+    /**
+     * @return The shard holding the rows with the filtered value of the shard column
+     */
+    public SQLConnection.dbKey shardOf(Object keyValue) {
+        int shard = shardFunction.shardOf(keyValue, shards.size());
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalStateException("Shard function returned " + shard + " for " + shards.size() + " shards");
+        }
+        return shards.get(shard);
+    }
+
+    /**
+     * Runs the call on the shard holding the value of the shard column
+     */
+    public <T, X extends Exception> T onShardOf(Object keyValue, SQL.DatabaseCall<T, X> call) throws X {
+        return SQL.callOnShard(shardOf(keyValue), call);
+    }
+
+    /**
+     * Call run on one shard
+     */
+    @FunctionalInterface
+    public interface ShardCall<T> {
+        T call(SQLConnection.dbKey shard) throws Exception;
+    }
+
+    /**
+     * Runs the call on every shard in parallel, on the async executor
+     * @return The results in shard order
+     * @throws Exception thrown by the call on any shard
+     */
+    public <T> List<T> onAllShards(ShardCall<T> call) throws Exception {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (SQLConnection.dbKey shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return SQL.callOnShard(shard, () -> call.call(shard));
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, SQL.Service.getAsyncExecutor()));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Merges the rows read from every shard. Rows of each shard must already be sorted by the comparator.
+     * @param results Rows of every shard, empty if a shard has none
+     * @param comparator Order of the rows, null to concatenate them in shard order
+     * @param limit Maximum number of merged rows, negative for no limit
+     * @return The merged rows, empty if there are none
+     */
+    public static <T> Optional<List<T>> merge(List<Optional<List<T>>> results, Comparator<? super T> comparator, int limit) {
+        int max = limit < 0 ? Integer.MAX_VALUE : limit;
+        List<T> merged = new ArrayList<>();
+        if (comparator == null) {
+            for (Optional<List<T>> rows : results) {
+                for (T row : rows.orElse(List.of())) {
+                    if (merged.size() >= max) break;
+                    merged.add(row);
+                }
+            }
+        } else {
+            // k-way merge, the queue holds the next row of every shard
+            record Cursor<T>(T row, List<T> rows, int index) {}
+            PriorityQueue<Cursor<T>> next = new PriorityQueue<>(Math.max(1, results.size()), (a, b) -> comparator.compare(a.row(), b.row()));
+            for (Optional<List<T>> rows : results) {
+                rows.filter(list -> !list.isEmpty()).ifPresent(list -> next.add(new Cursor<>(list.getFirst(), list, 0)));
+            }
+            while (!next.isEmpty() && merged.size() < max) {
+                Cursor<T> cursor = next.poll();
+                merged.add(cursor.row());
+                int index = cursor.index() + 1;
+                if (index < cursor.rows().size()) {
+                    next.add(new Cursor<>(cursor.rows().get(index), cursor.rows(), index));
+                }
+            }
+        }
+        return Optional.ofNullable(merged.isEmpty() ? null : merged);
+    }
+
+    /**
+     * Orders rows by a column value the way the database does: NULL first, UUIDs and byte arrays by unsigned bytes
+     * like BINARY columns, Strings case insensitive.
+     * Strings are only approximated: the comparison ignores case by Unicode rules, not by the collation of the column,
+     * so accent-insensitive or locale specific collations and trailing spaces may order a few rows differently than the database.
+     * @param value Reads the column value of a row
+     */
+    public static <T> Comparator<T> columnOrder(Function<T, Object> value, DatabaseInterface.Order order) {
+        Comparator<T> ascending = (a, b) -> compareValues(value.apply(a), value.apply(b));
+        return order == DatabaseInterface.Order.DESCENDING ? ascending.reversed() : ascending;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        if (a == null || b == null) return a == null ? (b == null ? 0 : -1) : 1;
+        if (a instanceof String first && b instanceof String second) return String.CASE_INSENSITIVE_ORDER.compare(first, second);
+        if (a instanceof byte[] first && b instanceof byte[] second) return Arrays.compareUnsigned(first, second);
+        if (a instanceof UUID first && b instanceof UUID second) {
+            // Stored as BINARY(16), the big endian bytes of both halves compared unsigned. UUID.compareTo is signed.
+            int high = Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits());
+            return high != 0 ? high : Long.compareUnsigned(first.getLeastSignificantBits(), second.getLeastSignificantBits());
+        }
+        if (a instanceof Comparable comparable && a.getClass() == b.getClass()) return comparable.compareTo(b);
+        return Objects.toString(a).compareTo(Objects.toString(b));
+    }
+}
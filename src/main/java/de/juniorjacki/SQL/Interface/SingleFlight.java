@@ -0,0 +1,77 @@
+package de.juniorjacki.SQL.Interface;
+
+import de.juniorjacki.SQL.SQL;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lets concurrent executions of the same statement with the same parameters share one database call.
+ * The first caller runs the call, callers arriving while it is in flight wait for its result instead of
+ * querying again. Nothing is cached, a call arriving after the result was delivered runs again.
+ * Calls forced to the primary with {@code SQL.onPrimary} only share calls that are forced as well,
+ * so they never receive a result read from a replica.
+ */
+public final class SingleFlight {
+
+    private record Call(String sql, List<?> parameters, boolean primary) {}
+
+    private final ConcurrentHashMap<Call, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Runs the call, or waits for the running call of the same statement and parameters
+     * @param sql Rendered statement
+     * @param parameters Bound parameter values
+     * @param call Database call
+     * @param share Copies the result for a waiting caller, so mutable results are not shared
+     * @return Result of the call
+     * @throws Exception thrown by the call, waiting callers receive the same exception
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String sql, List<?> parameters, Callable<T> call, UnaryOperator<T> share) throws Exception {
+        Call key = new Call(sql, parameters, SQL.isPrimaryForced());
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            suppressed.increment();
+            try {
+                return share.apply((T) running.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Exception cause) throw cause;
+                throw e;
+            }
+        }
+        executed.increment();
+        try {
+            T result = call.call();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * @return Number of calls that ran against the database
+     */
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * @return Number of duplicate calls that waited for a running call instead of querying
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+}
@@ -0,0 +1,332 @@
+package de.juniorjacki.SQL.Interface;
+
+import de.juniorjacki.SQL.SQL;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers upserts of a Table and writes them in batches on a background thread.
+ * Writes are coalesced by primary key, only the last Record written for a key is sent to the database.
+ * The buffer is flushed once it holds a batch, after the flush interval, on {@link #flush()} and on {@code SQL.stop()}.
+ * Flushes run on the flusher thread, so buffered Records are never written with a transaction or shard bound to a caller.
+ * A write finding the buffer full writes a batch itself, which slows writers down to the pace of the database.
+ * Buffered Records are not visible to reads until they are flushed and are lost if the process dies before.
+ *
+ * @param <R> The Record type
+ */
+public final class WriteBehindBuffer<R> {
+
+    private static final Set<WriteBehindBuffer<?>> openBuffers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param capacity Number of distinct keys the buffer holds before writers have to flush themselves
+     * @param batchSize Number of Records written per round trip, a buffer holding a batch is flushed right away
+     * @param flushInterval Time after which buffered Records are written even if no batch is complete
+     */
+    public record Config(int capacity, int batchSize, Duration flushInterval) {
+        public Config {
+            if (batchSize < 1 || capacity < batchSize) {
+                throw new IllegalArgumentException("Invalid capacity: " + capacity + " and batch size: " + batchSize + ", expected: 1 <= batch size <= capacity");
+            }
+            if (flushInterval == null || flushInterval.toMillis() < 1) {
+                throw new IllegalArgumentException("Flush interval must be positive");
+            }
+        }
+
+        public static Config defaults() {
+            return new Config(10_000, 500, Duration.ofSeconds(1));
+        }
+    }
+
+    /**
+     * Writes a batch of Records
+     */
+    @FunctionalInterface
+    public interface Writer<R> {
+        /**
+         * @return true if all Records were written, false to keep them buffered for the next flush
+         */
+        boolean write(List<R> records);
+    }
+
+    private record Entry<R>(Object key, R record) {}
+
+    private final String name;
+    private final Config config;
+    private final Writer<R> writer;
+    private final ConcurrentHashMap<Object, R> pending = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Object> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock(); // Keeps batches in order, a key is never written by two batches at once
+    private final ScheduledExecutorService flusher;
+    private volatile Thread flusherThread;
+    private volatile boolean closed = false;
+
+    private final LongAdder offers = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder writerFlushes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param name Name of the buffered Table, used for the flusher thread
+     * @param config Capacity, batch size and flush interval
+     * @param writer Writes the Records of a batch, called by one thread at a time
+     */
+    public WriteBehindBuffer(String name, Config config, Writer<R> writer) {
+        if (name == null || config == null || writer == null) {
+            throw new IllegalArgumentException("Name, config and writer cannot be null");
+        }
+        this.name = name;
+        this.config = config;
+        this.writer = writer;
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WriteBehind-" + name);
+            thread.setDaemon(true);
+            flusherThread = thread;
+            return thread;
+        });
+        long interval = config.flushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushBuffered, interval, interval, TimeUnit.MILLISECONDS);
+        openBuffers.add(this);
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Buffers the Record, replacing a buffered Record with the same key
+     * @param key Primary key of the Record
+     * @return false if the Record was not buffered because the buffer is closed, or it was full and could not be flushed.
+     *         The caller then writes the Record itself.
+     */
+    public boolean offer(Object key, R record) {
+        if (key == null || record == null) {
+            throw new IllegalArgumentException("Key and record cannot be null");
+        }
+        if (closed) return false;
+        offers.increment();
+        if (pending.computeIfPresent(key, (k, previous) -> record) != null) {
+            coalesced.increment();
+            return true;
+        }
+        while (!reserve()) {
+            writerFlushes.increment();
+            if (!flushBatch() || closed) return false;
+        }
+        if (pending.put(key, record) != null) {
+            size.decrementAndGet(); // Another writer buffered the key meanwhile
+            coalesced.increment();
+        } else {
+            order.add(key);
+        }
+        if (closed) {
+            flush(); // Closed while buffering, the final flush may have missed the Record
+        } else if (size.get() >= config.batchSize() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushBuffered);
+        }
+        return true;
+    }
+
+    private boolean reserve() {
+        int current;
+        do {
+            current = size.get();
+            if (current >= config.capacity()) return false;
+        } while (!size.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void flushBuffered() {
+        flushRequested.set(false);
+        flushBatches();
+    }
+
+    /**
+     * Writes all Records buffered when called, in batches, and waits until they are written.
+     * The batches are written on the flusher thread, outside of a transaction or shard bound to the calling thread,
+     * so a caller inside a transaction must not hold locks on rows that are buffered.
+     * @return true if all batches were written
+     */
+    public boolean flush() {
+        if (Thread.currentThread() == flusherThread) return flushBatches();
+        CompletableFuture<Boolean> result;
+        try {
+            result = CompletableFuture.supplyAsync(this::flushBatches, flusher);
+        } catch (RejectedExecutionException e) {
+            result = CompletableFuture.supplyAsync(this::flushBatches, SQL.Service.getAsyncExecutor()); // Closed, the flusher is shut down
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            e.getCause().printStackTrace();
+            return false;
+        }
+    }
+
+    private boolean flushBatches() {
+        int batchCount = (size.get() + config.batchSize() - 1) / config.batchSize();
+        for (int i = 0; i < batchCount; i++) {
+            if (!flushBatch()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the oldest buffered keys as one batch. A failed batch is buffered again, unless its keys were written again meanwhile.
+     * @return false if the batch could not be written
+     */
+    private boolean flushBatch() {
+        flushLock.lock();
+        try {
+            List<Entry<R>> batch = new ArrayList<>(Math.min(config.batchSize(), size.get()));
+            Object key;
+            while (batch.size() < config.batchSize() && (key = order.poll()) != null) {
+                R record = pending.remove(key);
+                if (record != null) {
+                    size.decrementAndGet();
+                    batch.add(new Entry<>(key, record));
+                }
+            }
+            if (batch.isEmpty()) return true;
+            List<R> records = new ArrayList<>(batch.size());
+            for (Entry<R> entry : batch) {
+                records.add(entry.record());
+            }
+            boolean success;
+            try {
+                success = writer.write(records);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                success = false;
+            }
+            if (success) {
+                batches.increment();
+                written.add(records.size());
+            } else {
+                failedBatches.increment();
+                for (Entry<R> entry : batch) {
+                    if (!reserve()) {
+                        dropped.increment();
+                    } else if (pending.putIfAbsent(entry.key(), entry.record()) != null) {
+                        size.decrementAndGet(); // A newer Record of the key is buffered
+                    } else {
+                        order.add(entry.key());
+                    }
+                }
+            }
+            return success;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the flusher thread and writes all buffered Records. Later writes are not buffered.
+     */
+    public void close() {
+        closed = true;
+        openBuffers.remove(this);
+        flusher.shutdown();
+        if (!flush()) {
+            System.out.println("Write-behind buffer of " + name + " could not be flushed, " + size.get() + " Records were not written");
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Flushes every open buffer
+     */
+    public static void flushAll() {
+        for (WriteBehindBuffer<?> buffer : List.copyOf(openBuffers)) {
+            buffer.flush();
+        }
+    }
+
+    /**
+     * Closes every open buffer, writing their buffered Records
+     */
+    public static void closeAll() {
+        for (WriteBehindBuffer<?> buffer : List.copyOf(openBuffers)) {
+            buffer.close();
+        }
+    }
+
+    /**
+     * @return Number of distinct keys currently buffered
+     */
+    public int getBufferedCount() {
+        return size.get();
+    }
+
+    /**
+     * @return Number of Records offered to the buffer
+     */
+    public long getOfferCount() {
+        return offers.sum();
+    }
+
+    /**
+     * @return Number of Records that replaced a buffered Record of the same key
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return Number of Records written to the database
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * @return Number of batches written
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return Number of batches that failed and were buffered again
+     */
+    public long getFailedBatchCount() {
+        return failedBatches.sum();
+    }
+
+    /**
+     * @return Number of times a writer found the buffer full and wrote a batch itself
+     */
+    public long getWriterFlushCount() {
+        return writerFlushes.sum();
+    }
+
+    /**
+     * @return Number of Records of failed batches dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
@@ -1,74 +1,410 @@
-package de.juniorjacki.SQL;
-
-
-import de.juniorjacki.SQL.Connection.SQLConnection;
-import de.juniorjacki.SQL.Base.SQLDatabase;
-
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.util.Optional;
-
-public class SQL extends SQLConnection implements SQLDatabase {
-
-
-
-    private dbKey databaseKey;
-
-    public static final SQL Service = new SQL();
-    private Connection currentConnection = null;
-
-    /**
-     * @return Current SQL Connection. May Throw Exception if service is not started
-     */
-    public static Optional<Connection> getConnection() {
-        return Optional.ofNullable(Service.getActiveConnection());
-    }
-
-    private static void updateConnection(Connection newConnection) {
-        Service.currentConnection = newConnection;
-    }
-
-    private Connection getActiveConnection() {
-        if (currentConnection != null) {
-            try {
-                if (checkConnection(currentConnection)) return currentConnection;
-                closeConnection(currentConnection);
-                currentConnection = null;
-                getNewConnectionAsync(databaseKey, SQL::updateConnection);
-                System.out.println("Try get New connection.");
-                throw new RuntimeException("Database Offline");
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-        }
-        throw new RuntimeException("Database Not Connected");
-        // TODO Call Stop
-    }
-
-    public int start(dbKey databaseKey) {
-        this.databaseKey = databaseKey;
-        try {
-            currentConnection = getNewConnection(databaseKey);
-            if (currentConnection == null) return -1;
-            if (!checkConnection(currentConnection)) return -2;
-            buildDatabaseTables(currentConnection);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return -3;
-        }
-        return 0;
-    }
-
-    public void stop() {
-        stopAsyncConnectionGetter();
-        if (currentConnection != null) {
-            try {
-                closeConnection(currentConnection);
-                System.out.println("Database connection closed.");
-            } catch (SQLException e) {
-                System.out.println("Failed to close the database connection: " +e.getMessage());
-            }
-            currentConnection = null;
-        }
-    }
-}
+package de.juniorjacki.SQL;
+
+
+import de.juniorjacki.SQL.Connection.PooledConnection;
+import de.juniorjacki.SQL.Connection.ReplicaRouter;
+import de.juniorjacki.SQL.Connection.SQLConnection;
+import de.juniorjacki.SQL.Base.SQLDatabase;
+import de.juniorjacki.SQL.Base.SQLQueryBuilder;
+import de.juniorjacki.SQL.Connection.SQLConnectionPool;
+import de.juniorjacki.SQL.Connection.Transaction;
+import de.juniorjacki.SQL.Interface.QueryCache;
+import de.juniorjacki.SQL.Interface.Sharding;
+import de.juniorjacki.SQL.Interface.WriteBehindBuffer;
+import de.juniorjacki.SQL.Structure.Table;
+import de.juniorjacki.SQL.Structure.Tables;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+public class SQL extends SQLConnection implements SQLDatabase {
+
+
+
+    private dbKey databaseKey;
+
+    public static final SQL Service = new SQL();
+    private SQLConnectionPool connectionPool = null;
+    private volatile ReplicaRouter replicaRouter = null;
+    private static final ThreadLocal<Boolean> primaryForced = ThreadLocal.withInitial(() -> false);
+    private final ConcurrentHashMap<dbKey, SQLConnectionPool> shardPools = new ConcurrentHashMap<>();
+    private static final ThreadLocal<SQLConnectionPool> boundShard = new ThreadLocal<>();
+    private volatile Executor asyncExecutor = null;
+    private ExecutorService ownedAsyncExecutor = null;
+    private final QueryCache queryCache = new QueryCache(64L * 1024 * 1024);
+
+    /**
+     * Borrows a Connection from the Pool. The Connection must be closed to return it.
+     * Fails immediately while the circuit breaker is not closed.
+     * Inside {@link #inTransaction(Transaction.Task)} a shared handle on the Connection of the transaction is returned,
+     * inside {@link #callOnShard(dbKey, DatabaseCall)} a Connection to the shard.
+     * @return Pooled SQL Connection
+     * @throws SQLException if the service is not started or no Connection is available
+     */
+    public static PooledConnection borrowConnection() throws SQLException {
+        SQLConnectionPool shard = boundShard.get();
+        Transaction transaction = Transaction.current();
+        if (transaction != null) {
+            if (transaction.getPool() != (shard != null ? shard : Service.connectionPool)) {
+                throw new SQLException("A transaction can only use the database it was started on");
+            }
+            return transaction.connection();
+        }
+        if (shard != null) return shard.borrow();
+        SQLConnectionPool pool = Service.connectionPool;
+        if (pool == null) throw new SQLException("Database Not Connected");
+        if (!Service.getCircuitBreaker().allowRequest()) {
+            throw new SQLTransientConnectionException("Database Offline, circuit breaker is " + Service.getCircuitBreaker().getState());
+        }
+        return pool.borrow();
+    }
+
+    /**
+     * Borrows a Connection for a read. Reads go to the least busy available replica if replicas are configured,
+     * and to the primary inside a transaction, inside {@link #onPrimary(Supplier)} or if no replica is available.
+     * The Connection must be closed to return it.
+     * @return Pooled SQL Connection to a replica or the primary
+     * @throws SQLException if the service is not started or no Connection is available
+     */
+    public static PooledConnection borrowReadConnection() throws SQLException {
+        ReplicaRouter router = Service.replicaRouter;
+        if (router != null && Transaction.current() == null && !primaryForced.get() && boundShard.get() == null) {
+            PooledConnection connection = router.borrow();
+            if (connection != null) return connection;
+        }
+        return borrowConnection();
+    }
+
+    /**
+     * Runs the call with all its reads on the primary, e.g. to read a row right after writing it.
+     * Async calls started inside the call, and lookups batched on other threads for it, also read from the primary.
+     * @param call Database calls of the current thread
+     * @return Result of the call
+     */
+    public <T> T onPrimary(Supplier<T> call) {
+        return readFromPrimary(call::get);
+    }
+
+    /**
+     * Variant of {@link #onPrimary(Supplier)} for calls throwing checked exceptions
+     */
+    public static <T, X extends Exception> T readFromPrimary(DatabaseCall<T, X> call) throws X {
+        if (primaryForced.get()) return call.call();
+        primaryForced.set(true);
+        try {
+            return call.call();
+        } finally {
+            primaryForced.set(false);
+        }
+    }
+
+    /**
+     * @return true while the reads of the current thread are forced to the primary
+     */
+    public static boolean isPrimaryForced() {
+        return primaryForced.get();
+    }
+
+    /**
+     * Runs the call with all its database calls on the shard, used by sharded Tables.
+     * A transaction on a shard has to be started inside this call.
+     * @param shard Database of the shard, its Connection Pool is opened on first use with the settings of the primary
+     * @return Result of the call
+     */
+    public static <T, X extends Exception> T callOnShard(dbKey shard, DatabaseCall<T, X> call) throws X {
+        SQLConnectionPool pool;
+        try {
+            pool = Service.shardPool(shard);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Shard " + shard.host() + ":" + shard.port() + "/" + shard.dataBase() + " is not available", e);
+        }
+        SQLConnectionPool previous = boundShard.get();
+        boundShard.set(pool);
+        try {
+            return call.call();
+        } finally {
+            if (previous == null) {
+                boundShard.remove();
+            } else {
+                boundShard.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return true while the current thread runs a call on a shard
+     */
+    public static boolean isShardBound() {
+        return boundShard.get() != null;
+    }
+
+    /**
+     * Opens the Connection Pool of a shard and creates the sharded Tables on it
+     */
+    private SQLConnectionPool shardPool(dbKey shard) throws SQLException {
+        SQLConnectionPool pool = shardPools.get(shard);
+        if (pool != null) return pool;
+        synchronized (shardPools) {
+            pool = shardPools.get(shard);
+            if (pool != null) return pool;
+            SQLConnectionPool primary = connectionPool;
+            if (primary == null) throw new SQLException("Database Not Connected");
+            pool = new SQLConnectionPool(() -> getNewConnection(shard), primary.getConfig());
+            try (PooledConnection connection = pool.borrow()) {
+                for (Tables table : Tables.values()) {
+                    Table<?, ?> instance = table.instance;
+                    Sharding<?> sharding = instance.sharding();
+                    if (sharding == null || !sharding.shards().contains(shard)) continue;
+                    try (Statement statement = connection.get().createStatement()) {
+                        statement.execute(SQLQueryBuilder.generateCreateTableQuery(instance.tableName(), instance.tableProperties()));
+                    }
+                }
+            } catch (SQLException e) {
+                pool.close();
+                throw e;
+            }
+            shardPools.put(shard, pool);
+            return pool;
+        }
+    }
+
+    /**
+     * @return Connection Pool of the shard, or null if it was not used yet
+     */
+    public SQLConnectionPool getShardPool(dbKey shard) {
+        return shardPools.get(shard);
+    }
+
+    /**
+     * Database calls run on a chosen database
+     */
+    @FunctionalInterface
+    public interface DatabaseCall<T, X extends Exception> {
+        T call() throws X;
+    }
+
+    /**
+     * Reports a failed database call. Connection errors mark the Pool unhealthy until the next successful validation.
+     * A failed call inside a transaction marks the transaction to be rolled back.
+     * @param e Error thrown by the database call
+     */
+    public static void reportError(Exception e) {
+        Transaction transaction = Transaction.current();
+        if (transaction != null) transaction.setRollbackOnly();
+        SQLConnectionPool shard = boundShard.get();
+        if (shard != null) {
+            shard.reportFailure(e);
+            return;
+        }
+        SQLConnectionPool pool = Service.connectionPool;
+        if (pool != null) pool.reportFailure(e);
+        ReplicaRouter router = Service.replicaRouter;
+        if (router != null) router.reportFailure(e);
+    }
+
+    /**
+     * Runs a database call on the async executor. By default every call gets its own virtual thread,
+     * the number of calls hitting the database at the same time is bounded by the Connection Pool.
+     * A call started inside {@link #onPrimary(Supplier)} reads from the primary as well.
+     * @param call Blocking database call
+     * @return Future completed with the result of the call
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        Supplier<T> task = primaryForced.get() ? () -> readFromPrimary(call::get) : call;
+        return CompletableFuture.supplyAsync(task, Service.getAsyncExecutor());
+    }
+
+    /**
+     * Runs the task in a transaction, keeping the isolation level of the Connection
+     * @see #inTransaction(int, Transaction.Task)
+     */
+    public boolean inTransaction(Transaction.Task task) {
+        return inTransaction(-1, task);
+    }
+
+    /**
+     * Runs the task in a transaction. All DatabaseInterface and QueryBuilder calls of the current thread inside the task
+     * share one Connection and are committed once the task completes. The transaction is rolled back if the task throws,
+     * a database call inside it fails, or {@link Transaction#setRollbackOnly()} is called.
+     * Calling this inside a transaction joins the running transaction.
+     * Async calls started inside the task run on other threads and are not part of the transaction.
+     * @param isolationLevel One of the JDBC {@code Connection.TRANSACTION_*} levels, or -1 to keep the level of the Connection
+     * @return true if the transaction was committed, or if it was joined without being marked for rollback
+     */
+    public boolean inTransaction(int isolationLevel, Transaction.Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task cannot be null");
+        }
+        return callInTransaction(isolationLevel, transaction -> {
+            task.run(transaction);
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    /**
+     * Runs the work in a transaction, keeping the isolation level of the Connection
+     * @see #callInTransaction(int, Transaction.Work)
+     */
+    public <T> Optional<T> callInTransaction(Transaction.Work<T> work) {
+        return callInTransaction(-1, work);
+    }
+
+    /**
+     * Runs the work in a transaction like {@link #inTransaction(int, Transaction.Task)}
+     * @return Result of the work, empty if the transaction was rolled back or the work returned null
+     */
+    public <T> Optional<T> callInTransaction(int isolationLevel, Transaction.Work<T> work) {
+        if (work == null) {
+            throw new IllegalArgumentException("Work cannot be null");
+        }
+        Transaction[] used = new Transaction[1];
+        try {
+            T result = Transaction.execute(SQL::borrowConnection, isolationLevel, transaction -> {
+                used[0] = transaction;
+                return work.run(transaction);
+            });
+            return used[0].isRollbackOnly() ? Optional.empty() : Optional.ofNullable(result);
+        } catch (Exception e) {
+            reportError(e);
+            e.printStackTrace();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Sets the Executor used for async database calls. Passing null restores the default virtual thread executor.
+     * A custom Executor is not shut down by {@link #stop()}.
+     */
+    public synchronized void setAsyncExecutor(Executor executor) {
+        this.asyncExecutor = executor;
+    }
+
+    /**
+     * @return Executor used for async database calls
+     */
+    public Executor getAsyncExecutor() {
+        Executor executor = asyncExecutor;
+        if (executor != null) return executor;
+        synchronized (this) {
+            if (asyncExecutor == null) {
+                ownedAsyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+                asyncExecutor = ownedAsyncExecutor;
+            }
+            return asyncExecutor;
+        }
+    }
+
+    /**
+     * @return Cache of query results, used by queries marked with {@code cached(Duration)}. The budget defaults to 64 MiB.
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * @return Current Connection Pool, or null if the service is not started
+     */
+    public SQLConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * @return Router of reads to the replicas, or null if the service was started without replicas
+     */
+    public ReplicaRouter getReplicaRouter() {
+        return replicaRouter;
+    }
+
+    public int start(dbKey databaseKey) {
+        return start(databaseKey, SQLConnectionPool.Config.defaults());
+    }
+
+    /**
+     * Starts the service with read replicas. Writes and reads inside transactions go to the primary,
+     * the other reads of DatabaseInterface and QueryBuilder are spread over the replicas.
+     * A replica that can not be reached on start is left out of the rotation until its pool recovers.
+     * @param databaseKey The primary
+     * @param replicaKeys The read replicas, each gets its own Connection Pool with poolConfig
+     * @param replicaConfig Replication lag threshold
+     */
+    public int start(dbKey databaseKey, List<dbKey> replicaKeys, SQLConnectionPool.Config poolConfig, ReplicaRouter.Config replicaConfig) {
+        if (replicaKeys == null || replicaConfig == null) {
+            throw new IllegalArgumentException("Replicas and replica config cannot be null");
+        }
+        int result = start(databaseKey, poolConfig);
+        if (result != 0) return result;
+        List<SQLConnectionPool> pools = new ArrayList<>();
+        for (dbKey replicaKey : replicaKeys) {
+            SQLConnectionPool pool = new SQLConnectionPool(() -> getNewConnection(replicaKey), poolConfig);
+            try {
+                pool.fill();
+            } catch (SQLException e) {
+                System.out.println("Failed to connect to replica " + replicaKey.host() + ":" + replicaKey.port() + ": " + e.getMessage());
+                pool.reportFailure(e);
+            }
+            pools.add(pool);
+        }
+        replicaRouter = new ReplicaRouter(pools, replicaConfig);
+        return 0;
+    }
+
+    public int start(dbKey databaseKey, SQLConnectionPool.Config poolConfig) {
+        this.databaseKey = databaseKey;
+        try (Connection connection = getNewConnection(databaseKey)) {
+            if (connection == null) return -1;
+            if (!checkConnection(connection)) return -2;
+            SQLConnectionPool pool = new SQLConnectionPool(() -> getNewConnection(databaseKey), poolConfig);
+            startReconnectSupervisor();
+            pool.setOutageListener(() -> startReconnect(databaseKey, pool::recover));
+            connectionPool = pool;
+            pool.fill();
+            buildDatabaseTables(connection);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            stopReconnectSupervisor();
+            if (connectionPool != null) {
+                connectionPool.close();
+                connectionPool = null;
+            }
+            return -3;
+        }
+        return 0;
+    }
+
+    public void stop() {
+        stopReconnectSupervisor();
+        WriteBehindBuffer.closeAll(); // Written while the pools are still open
+        synchronized (this) {
+            if (ownedAsyncExecutor != null) {
+                ownedAsyncExecutor.close(); // Waits for running calls
+                if (asyncExecutor == ownedAsyncExecutor) asyncExecutor = null;
+                ownedAsyncExecutor = null;
+            }
+        }
+        queryCache.clear();
+        if (replicaRouter != null) {
+            replicaRouter.close();
+            replicaRouter = null;
+        }
+        synchronized (shardPools) {
+            shardPools.values().forEach(SQLConnectionPool::close);
+            shardPools.clear();
+        }
+        if (connectionPool != null) {
+            connectionPool.close();
+            System.out.println("Database connection closed.");
+            connectionPool = null;
+        }
+    }
+}
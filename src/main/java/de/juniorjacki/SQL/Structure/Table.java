@@ -1,31 +1,185 @@
-package de.juniorjacki.SQL.Structure;
-
-
-import de.juniorjacki.SQL.Type.DatabaseRecord;
-import de.juniorjacki.SQL.Type.DatabaseType;
-
-import java.util.ArrayList;
-import java.util.List;
-
-public abstract class Table<E extends Enum<E> & DatabaseProperty,R extends Record & DatabaseRecord<R,E>> {
-    public String tableName() {
-        return getTableRecord().getSimpleName();
-    }
-    public abstract Class<R> getTableRecord();
-    public abstract List<E> getProperties();
-    public void onCreation() throws Exception {}
-    Table<?,?> getTableClass() {
-        return Tables.valueOf(this.tableName()).instance;
-    }
-
-    public List<Table.Property> tableProperties() {
-        List<Table.Property> properties = new ArrayList<>();
-        for (DatabaseProperty property : getProperties()) {
-            properties.add(new Table.Property(property.name(), property.isKey(), property.isUnique(), property.getType(), property.extendLength()));
-        }
-        return properties;
-    }
-    public record Property(String dbName, boolean key, boolean unique, DatabaseType dataType, int extendedLength) {};
-}
-
-
+package de.juniorjacki.SQL.Structure;
+
+
+import de.juniorjacki.SQL.Interface.BatchLoader;
+import de.juniorjacki.SQL.Interface.EntityCache;
+import de.juniorjacki.SQL.Interface.Sharding;
+import de.juniorjacki.SQL.Interface.SingleFlight;
+import de.juniorjacki.SQL.Interface.WriteBehindBuffer;
+import de.juniorjacki.SQL.Type.DatabaseRecord;
+import de.juniorjacki.SQL.Type.DatabaseType;
+import de.juniorjacki.SQL.Type.RecordMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public abstract class Table<E extends Enum<E> & DatabaseProperty,R extends Record & DatabaseRecord<R,E>> {
+    private volatile TableMetadata<E> metadata;
+    private volatile RecordMapper<R> recordMapper;
+    private final ConcurrentHashMap<E, BatchLoader<R>> batchLoaders = new ConcurrentHashMap<>();
+    private final SingleFlight singleFlight = new SingleFlight();
+    private volatile EntityCache<R> entityCache;
+    private volatile WriteBehindBuffer<R> writeBehindBuffer;
+
+    public String tableName() {
+        TableMetadata<E> current = metadata;
+        return current != null ? current.tableName() : getTableRecord().getSimpleName();
+    }
+    public abstract Class<R> getTableRecord();
+    public abstract List<E> getProperties();
+    public void onCreation() throws Exception {}
+    Table<?,?> getTableClass() {
+        return Tables.valueOf(this.tableName()).instance;
+    }
+
+    /**
+     * @return Precomputed Metadata and SQL Statements of this Table, built on first use
+     */
+    public TableMetadata<E> metadata() {
+        TableMetadata<E> current = metadata;
+        if (current == null) {
+            current = new TableMetadata<>(getTableRecord().getSimpleName(), getProperties());
+            metadata = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return Mapper creating Table Records from ResultSet rows, built on first use
+     */
+    public RecordMapper<R> recordMapper() {
+        RecordMapper<R> current = recordMapper;
+        if (current == null) {
+            current = new RecordMapper<>(tableName(), getTableRecord(), getProperties());
+            recordMapper = current;
+        }
+        return current;
+    }
+
+    /**
+     * Override to coalesce concurrent getFirstByKey lookups of this Table into IN queries
+     * @return Batching window and size, or null to run every lookup on its own
+     */
+    public BatchLoader.Config batchLoading() {
+        return null;
+    }
+
+    /**
+     * @return The BatchLoader of the key column, created by factory on first use
+     */
+    public BatchLoader<R> batchLoader(E keyColumn, Function<E, BatchLoader<R>> factory) {
+        return batchLoaders.computeIfAbsent(keyColumn, factory);
+    }
+
+    /**
+     * @return The BatchLoader of the key column if lookups by it were batched yet
+     */
+    public Optional<BatchLoader<R>> getBatchLoader(E keyColumn) {
+        return Optional.ofNullable(batchLoaders.get(keyColumn));
+    }
+
+    /**
+     * Override to let concurrent identical reads of this Table share one database call
+     * @return true to deduplicate getFirstByKey and RowQuery executions with the same statement and parameters
+     */
+    public boolean singleFlightReads() {
+        return false;
+    }
+
+    /**
+     * @return Deduplication of concurrent reads, used if {@link #singleFlightReads()} is enabled
+     */
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * Override to cache Records of this Table by primary key.
+     * Lookups by the complete primary key are answered from the cache, writes through the DatabaseInterface
+     * of this Table write the cache through or invalidate it. Writes from outside this library are not seen.
+     * @return Size and time to live of the cache, or null to read every lookup from the database
+     */
+    public EntityCache.Config entityCaching() {
+        return null;
+    }
+
+    /**
+     * @return The entity cache of this Table, created on first use, or null if {@link #entityCaching()} is not enabled
+     */
+    public EntityCache<R> getEntityCache() {
+        EntityCache<R> current = entityCache;
+        if (current == null) {
+            EntityCache.Config config = entityCaching();
+            if (config == null) return null;
+            synchronized (this) {
+                current = entityCache;
+                if (current == null) {
+                    current = new EntityCache<>(config);
+                    entityCache = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Override to spread the rows of this Table over several databases by the value of one key column.
+     * Operations by the shard column run on one shard, other reads run on all shards and are merged.
+     * @return Shard column, shards and shard function, or null to keep the Table on the primary database
+     */
+    public Sharding<E> sharding() {
+        return null;
+    }
+
+    /**
+     * Override to buffer upserts of this Table and write them in batches on a background thread.
+     * Upserts of the same primary key are coalesced, only the last one is written. Buffered Records are not visible
+     * to reads until they are flushed, other writes of this Table flush the buffer first and are skipped if it can not be flushed.
+     * Upserts inside a transaction or on a bound shard are written directly, after the buffer was flushed outside of them.
+     * @return Capacity, batch size and flush interval of the buffer, or null to write every upsert directly
+     */
+    public WriteBehindBuffer.Config writeBehind() {
+        return null;
+    }
+
+    /**
+     * @return The write-behind buffer of this Table, created by factory on first use or once the previous one was closed,
+     *         or null if {@link #writeBehind()} is not enabled
+     */
+    public WriteBehindBuffer<R> writeBehindBuffer(Function<WriteBehindBuffer.Config, WriteBehindBuffer<R>> factory) {
+        WriteBehindBuffer<R> current = writeBehindBuffer;
+        if (current == null || current.isClosed()) {
+            WriteBehindBuffer.Config config = writeBehind();
+            if (config == null) return null;
+            synchronized (this) {
+                current = writeBehindBuffer;
+                if (current == null || current.isClosed()) {
+                    current = factory.apply(config);
+                    writeBehindBuffer = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return The write-behind buffer of this Table if upserts were buffered yet
+     */
+    public Optional<WriteBehindBuffer<R>> getWriteBehindBuffer() {
+        return Optional.ofNullable(writeBehindBuffer);
+    }
+
+    public List<Table.Property> tableProperties() {
+        List<Table.Property> properties = new ArrayList<>();
+        for (DatabaseProperty property : getProperties()) {
+            properties.add(new Table.Property(property.name(), property.isKey(), property.isUnique(), property.getType(), property.extendLength()));
+        }
+        return properties;
+    }
+    public record Property(String dbName, boolean key, boolean unique, DatabaseType dataType, int extendedLength) {};
+}
+
+
@@ -0,0 +1,275 @@
+package de.juniorjacki.SQL.Structure;
+
+import de.juniorjacki.SQL.Interface.DatabaseInterface;
+import de.juniorjacki.SQL.Type.DatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Immutable description of a Table, built once per Table.
+ * Holds the column order, key and non-key columns, their types and the pre-rendered SQL of every
+ * DatabaseInterface operation, so hot paths do not rebuild the same statements on each call.
+ * Statements depending on one column are rendered up front, statements depending on two columns are
+ * rendered on first use, everything else is kept in a template registry keyed by operation and columns.
+ *
+ * @param <E> The enum type representing properties of the table
+ */
+public final class TableMetadata<E extends Enum<E> & DatabaseProperty> {
+
+    private final String tableName;
+    private final List<E> columns;
+    private final List<E> keyColumns;
+    private final List<E> valueColumns;
+    private final List<DatabaseType> types;
+
+    private final String columnList;
+    private final String qualifiedColumnList;
+    private final String selectAll;
+    private final String insert;
+    private final String upsert;
+    private final String updateRecord;
+
+    private final String[] countBy;
+    private final String[] existsBy;
+    private final String[] selectBy;
+    private final String[] selectFirstBy;
+    private final String[] countGroupedBy;
+    private final String[][] selectFirstByOrder;
+
+    private final String[][] selectColumnBy;
+    private final String[][] selectFirstColumnBy;
+    private final String[][] selectColumnPair;
+    private final String[][] updateColumnBy;
+
+    private final ConcurrentHashMap<TemplateKey, String> templates = new ConcurrentHashMap<>();
+
+    private record TemplateKey(String operation, List<?> parts) {}
+
+    public TableMetadata(String tableName, List<E> properties) {
+        if (tableName == null || properties == null || properties.isEmpty()) {
+            throw new IllegalArgumentException("Table name and properties cannot be empty");
+        }
+        this.tableName = tableName;
+        this.columns = List.copyOf(properties);
+        List<E> keys = new ArrayList<>();
+        List<E> values = new ArrayList<>();
+        List<DatabaseType> columnTypes = new ArrayList<>();
+        for (E column : columns) {
+            (column.isKey() ? keys : values).add(column);
+            columnTypes.add(column.getType());
+        }
+        this.keyColumns = List.copyOf(keys);
+        this.valueColumns = List.copyOf(values);
+        this.types = List.copyOf(columnTypes);
+
+        this.columnList = join(columns, "", ", ");
+        this.qualifiedColumnList = String.join(", ", columns.stream().map(column -> tableName + "." + column.name()).toList());
+        String placeholders = "?" + ", ?".repeat(columns.size() - 1);
+        this.selectAll = "SELECT " + columnList + " FROM " + tableName;
+        this.insert = "INSERT INTO " + tableName + " (" + columnList + ") VALUES (" + placeholders + ")";
+        StringBuilder duplicateUpdate = new StringBuilder();
+        for (E column : columns) {
+            if (!duplicateUpdate.isEmpty()) duplicateUpdate.append(", ");
+            duplicateUpdate.append(column.name()).append(" = VALUES(").append(column.name()).append(")");
+        }
+        this.upsert = insert + " ON DUPLICATE KEY UPDATE " + duplicateUpdate;
+        this.updateRecord = valueColumns.isEmpty() || keyColumns.isEmpty() ? null :
+                "UPDATE " + tableName + " SET " + join(valueColumns, " = ?", ", ") + " WHERE " + join(keyColumns, " = ?", " AND ");
+
+        int size = columns.getFirst().getDeclaringClass().getEnumConstants().length;
+        this.countBy = new String[size];
+        this.existsBy = new String[size];
+        this.selectBy = new String[size];
+        this.selectFirstBy = new String[size];
+        this.countGroupedBy = new String[size];
+        this.selectFirstByOrder = new String[size][DatabaseInterface.Order.values().length];
+        for (E column : columns) {
+            int i = column.ordinal();
+            countBy[i] = "SELECT COUNT(*) FROM " + tableName + " WHERE " + column.name() + " = ?";
+            existsBy[i] = "SELECT 1 FROM " + tableName + " WHERE " + column.name() + " = ? LIMIT 1";
+            selectBy[i] = selectAll + " WHERE " + column.name() + " = ?";
+            selectFirstBy[i] = selectBy[i] + " LIMIT 1";
+            countGroupedBy[i] = "SELECT " + column.name() + ",COUNT(*) AS COUNT FROM " + tableName + " GROUP BY " + column.name();
+            for (DatabaseInterface.Order order : DatabaseInterface.Order.values()) {
+                selectFirstByOrder[i][order.ordinal()] = selectAll + " ORDER BY " + column.name() + " " + order.sql + " LIMIT 1";
+            }
+        }
+        this.selectColumnBy = new String[size][size];
+        this.selectFirstColumnBy = new String[size][size];
+        this.selectColumnPair = new String[size][size];
+        this.updateColumnBy = new String[size][size];
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    /**
+     * @return All columns in declaration order
+     */
+    public List<E> columns() {
+        return columns;
+    }
+
+    /**
+     * @return Primary key columns in declaration order
+     */
+    public List<E> keyColumns() {
+        return keyColumns;
+    }
+
+    /**
+     * @return Non-key columns in declaration order
+     */
+    public List<E> valueColumns() {
+        return valueColumns;
+    }
+
+    /**
+     * @return Types of all columns, in the order of {@link #columns()}
+     */
+    public List<DatabaseType> types() {
+        return types;
+    }
+
+    /** All column names in declaration order, separated by commas */
+    public String columnList() {
+        return columnList;
+    }
+
+    /** All column names qualified with the table name, in declaration order, as selected by Binding queries */
+    public String qualifiedColumnList() {
+        return qualifiedColumnList;
+    }
+
+    /** SELECT of all columns in declaration order, so rows can be read by column index */
+    public String selectAll() {
+        return selectAll;
+    }
+
+    /** INSERT INTO table (all columns) VALUES (?, ...) */
+    public String insert() {
+        return insert;
+    }
+
+    /** INSERT ... ON DUPLICATE KEY UPDATE of all columns */
+    public String upsert() {
+        return upsert;
+    }
+
+    /**
+     * UPDATE of all non-key columns by the primary key, parameters are the non-key columns followed by the key columns
+     * @throws IllegalArgumentException if the table has no non-key or no key columns
+     */
+    public String updateRecord() {
+        if (updateRecord == null) {
+            throw new IllegalArgumentException("No non-key properties to update");
+        }
+        return updateRecord;
+    }
+
+    /** SELECT COUNT(*) FROM table WHERE column = ? */
+    public String countBy(E column) {
+        return countBy[column.ordinal()];
+    }
+
+    /** SELECT 1 FROM table WHERE column = ? LIMIT 1 */
+    public String existsBy(E column) {
+        return existsBy[column.ordinal()];
+    }
+
+    /** SELECT all columns FROM table WHERE column = ? */
+    public String selectBy(E column) {
+        return selectBy[column.ordinal()];
+    }
+
+    /** SELECT all columns FROM table WHERE column = ? LIMIT 1 */
+    public String selectFirstBy(E column) {
+        return selectFirstBy[column.ordinal()];
+    }
+
+    /** SELECT column,COUNT(*) AS COUNT FROM table GROUP BY column */
+    public String countGroupedBy(E column) {
+        return countGroupedBy[column.ordinal()];
+    }
+
+    /** SELECT all columns FROM table ORDER BY orderColumn order LIMIT 1 */
+    public String selectFirstByOrder(E orderColumn, DatabaseInterface.Order order) {
+        return selectFirstByOrder[orderColumn.ordinal()][order.ordinal()];
+    }
+
+    /** SELECT returnColumn FROM table WHERE keyColumn = ? */
+    public String selectColumnBy(E keyColumn, E returnColumn) {
+        String[] row = selectColumnBy[keyColumn.ordinal()];
+        String sql = row[returnColumn.ordinal()];
+        if (sql == null) {
+            sql = "SELECT " + returnColumn.name() + " FROM " + tableName + " WHERE " + keyColumn.name() + " = ?";
+            row[returnColumn.ordinal()] = sql;
+        }
+        return sql;
+    }
+
+    /** SELECT returnColumn FROM table WHERE keyColumn = ? LIMIT 1 */
+    public String selectFirstColumnBy(E keyColumn, E returnColumn) {
+        String[] row = selectFirstColumnBy[keyColumn.ordinal()];
+        String sql = row[returnColumn.ordinal()];
+        if (sql == null) {
+            sql = selectColumnBy(keyColumn, returnColumn) + " LIMIT 1";
+            row[returnColumn.ordinal()] = sql;
+        }
+        return sql;
+    }
+
+    /** SELECT keyColumn,valueColumn FROM table */
+    public String selectColumnPair(E keyColumn, E valueColumn) {
+        String[] row = selectColumnPair[keyColumn.ordinal()];
+        String sql = row[valueColumn.ordinal()];
+        if (sql == null) {
+            sql = "SELECT " + keyColumn.name() + "," + valueColumn.name() + " FROM " + tableName;
+            row[valueColumn.ordinal()] = sql;
+        }
+        return sql;
+    }
+
+    /** UPDATE table SET updateColumn = ? WHERE keyColumn = ? */
+    public String updateColumnBy(E keyColumn, E updateColumn) {
+        String[] row = updateColumnBy[keyColumn.ordinal()];
+        String sql = row[updateColumn.ordinal()];
+        if (sql == null) {
+            sql = "UPDATE " + tableName + " SET " + updateColumn.name() + " = ? WHERE " + keyColumn.name() + " = ?";
+            row[updateColumn.ordinal()] = sql;
+        }
+        return sql;
+    }
+
+    /**
+     * Returns the statement registered for the operation and parts, rendering it on first use.
+     * @param operation Name of the operation
+     * @param parts Columns and options the statement depends on
+     * @param renderer Renders the statement if it is not registered yet
+     * @return The rendered statement
+     */
+    public String template(String operation, List<?> parts, Supplier<String> renderer) {
+        TemplateKey key = new TemplateKey(operation, parts);
+        String sql = templates.get(key);
+        if (sql == null) {
+            sql = templates.computeIfAbsent(key, k -> renderer.get());
+        }
+        return sql;
+    }
+
+    /**
+     * Joins the names of columns, appending suffix to every name and separating them with delimiter
+     */
+    public static String join(List<? extends DatabaseProperty> columns, String suffix, String delimiter) {
+        StringBuilder sb = new StringBuilder();
+        for (DatabaseProperty column : columns) {
+            if (!sb.isEmpty()) sb.append(delimiter);
+            sb.append(column.name()).append(suffix);
+        }
+        return sb.toString();
+    }
+}
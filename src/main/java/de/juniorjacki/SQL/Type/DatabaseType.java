@@ -21,7 +21,8 @@ public enum DatabaseType {
     NAME(Type.class,
         List.of(Alias Classes),
         -> Append value (Type.class) to StringBuilder
-        -> Get Value of your Type from a ResultSet
+        -> Get Value of your Type from a ResultSet by Column Label
+        -> Get Value of your Type from a ResultSet by Column Index
         -> Put Value of your Type into a PreparedStatement
         -> If your Type accepts extendedLength How the Table Builder should tell it the Database
      */
@@ -30,6 +31,7 @@ public enum DatabaseType {
            List.of(CharSequence.class),
            (sb, value) -> InterDefinitions.appendEscapedString(sb, (String) value),
             ResultSet::getString,
+            ResultSet::getString,
            (ps, idx, val) -> ps.setString(idx, (String) val),
            (extendedLength) -> extendedLength == 0 ? "VARCHAR(255)" : "VARCHAR(" + extendedLength + ")"),
 
@@ -37,6 +39,7 @@ public enum DatabaseType {
          List.of(),
          (sb, value) -> InterDefinitions.appendHexBytes(sb, TypeConverter.convertUUIDToBytes((UUID) value)),
          (rs, col) -> TypeConverter.convertBytesToUUID(rs.getBytes(col)),
+         (rs, idx) -> TypeConverter.convertBytesToUUID(rs.getBytes(idx)),
          (ps, idx, val) -> ps.setBytes(idx, TypeConverter.convertUUIDToBytes((UUID) val)),
          (extendedLength) -> "BINARY(16)"),
 
@@ -44,6 +47,7 @@ public enum DatabaseType {
             List.of(int.class),
             (sb, value) -> sb.append((Integer) value),
             ResultSet::getInt,
+            ResultSet::getInt,
             (ps, idx, val) -> ps.setInt(idx, (Integer) val),
             (extendedLength) -> "INT"),
 
@@ -51,12 +55,14 @@ public enum DatabaseType {
          List.of(long.class),
          (sb, value) -> sb.append((Long) value),
             ResultSet::getLong,
+            ResultSet::getLong,
          (ps, idx, val) -> ps.setLong(idx, (Long) val),
          (extendedLength) -> "BIGINT"),
 
     BYTE_ARRAY(byte[].class,
                List.of(),
                (sb, value) -> InterDefinitions.appendHexBytes(sb, (byte[]) value),
+            ResultSet::getBytes,
             ResultSet::getBytes,
                (ps, idx, val) -> ps.setBytes(idx, (byte[]) val),
                (extendedLength) -> extendedLength == 0 ? "BINARY(64)" : "BINARY(" + extendedLength + ")"),
@@ -65,6 +71,7 @@ public enum DatabaseType {
            List.of(double.class),
            (sb, value) -> sb.append((Double) value),
             ResultSet::getDouble,
+            ResultSet::getDouble,
            (ps, idx, val) -> ps.setDouble(idx, (Double) val),
            (extendedLength) -> "DOUBLE"),
 
@@ -72,6 +79,7 @@ public enum DatabaseType {
             List.of(boolean.class),
             (sb, value) -> sb.append((Boolean) value ? "TRUE" : "FALSE"),
             (rs, col) -> rs.getBoolean(col),
+            (rs, idx) -> rs.getBoolean(idx),
             (ps, idx, val) -> ps.setBoolean(idx, (Boolean) val),
             (extendedLength) -> "BOOLEAN");
 
@@ -79,27 +87,31 @@ public enum DatabaseType {
     private final Set<Class<?>> aliasTypes;
     public final BiConsumer<StringBuilder, Object> appendConverter;
     public final TriFunction<ResultSet, String, Object> resultSetConverter;
+    public final IndexFunction<ResultSet, Object> indexConverter;
     public final TriConsumer<PreparedStatement, Integer, Object> parameterSetter;
     private final Function<Integer, String> sqlTypeMapper;
 
     DatabaseType(Class<?> type,
                  BiConsumer<StringBuilder, Object> appendConverter,
                  TriFunction<ResultSet, String, Object> resultSetConverter,
+                 IndexFunction<ResultSet, Object> indexConverter,
                  TriConsumer<PreparedStatement, Integer, Object> parameterSetter,
                  Function<Integer, String> sqlTypeMapper) {
-        this(type, List.of(), appendConverter, resultSetConverter, parameterSetter, sqlTypeMapper);
+        this(type, List.of(), appendConverter, resultSetConverter, indexConverter, parameterSetter, sqlTypeMapper);
     }
 
     DatabaseType(Class<?> type,
                  List<Class<?>> aliasTypes,
                  BiConsumer<StringBuilder, Object> appendConverter,
                  TriFunction<ResultSet, String, Object> resultSetConverter,
+                 IndexFunction<ResultSet, Object> indexConverter,
                  TriConsumer<PreparedStatement, Integer, Object> parameterSetter,
                  Function<Integer, String> sqlTypeMapper) {
         this.type = type;
         this.aliasTypes = new HashSet<>(aliasTypes);
         this.appendConverter = appendConverter;
         this.resultSetConverter = resultSetConverter;
+        this.indexConverter = indexConverter;
         this.parameterSetter = parameterSetter;
         this.sqlTypeMapper = sqlTypeMapper;
     }
@@ -124,6 +136,14 @@ public enum DatabaseType {
        V apply(T t, U u) throws SQLException;
     }
 
+    /**
+     * Functional interface for Getting Results by Column Index.
+     */
+    @FunctionalInterface
+    public interface IndexFunction<T, V> {
+        V apply(T t, int index) throws SQLException;
+    }
+
     /**
      * Finds the DatabaseType for a given class, mapping primary types, alias types, and primitive types to their
      * corresponding DatabaseType, defaulting to STRING for unknown types.
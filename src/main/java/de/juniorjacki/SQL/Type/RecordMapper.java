@@ -0,0 +1,138 @@
+package de.juniorjacki.SQL.Type;
+
+import de.juniorjacki.SQL.Structure.DatabaseProperty;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Maps ResultSet rows to a Record class.
+ * Constructor lookup, component to column matching and column labels are resolved once when the mapper is built,
+ * every row only reads its values and invokes the canonical constructor through a MethodHandle.
+ * Queries selecting the columns of the Table in declaration order are read by column index.
+ *
+ * @param <R> The Record type
+ */
+public final class RecordMapper<R extends java.lang.Record> {
+
+    private final Class<R> recordClass;
+    private final MethodHandle constructor;
+    private final int argumentCount;
+    private final DatabaseProperty[] properties;
+    private final String[] labels;
+    private final String[] qualifiedLabels;
+    private final int[] positions;
+    private final int columnCount;
+
+    /**
+     * @param tableName Name of the Table, used for the qualified labels of Binding queries
+     * @param recordClass Record the rows are mapped to
+     * @param columns Columns of the Table, components without a matching column are left null
+     */
+    public RecordMapper(String tableName, Class<R> recordClass, List<? extends DatabaseProperty> columns) {
+        if (recordClass == null || !recordClass.isRecord()) {
+            throw new IllegalArgumentException("Not a record class: " + recordClass);
+        }
+        this.recordClass = recordClass;
+        RecordComponent[] components = recordClass.getRecordComponents();
+        Class<?>[] componentTypes = new Class<?>[components.length];
+        this.argumentCount = components.length;
+        this.properties = new DatabaseProperty[components.length];
+        this.labels = new String[components.length];
+        this.qualifiedLabels = new String[components.length];
+        this.positions = new int[components.length];
+        this.columnCount = columns.size();
+        for (int i = 0; i < components.length; i++) {
+            componentTypes[i] = components[i].getType();
+            for (int position = 0; position < columns.size(); position++) {
+                DatabaseProperty column = columns.get(position);
+                if (components[i].getName().equals(column.name())) {
+                    properties[i] = column;
+                    positions[i] = position;
+                    labels[i] = column.name();
+                    qualifiedLabels[i] = tableName + "." + column.name();
+                    break;
+                }
+            }
+        }
+        try {
+            Constructor<R> canonical = recordClass.getDeclaredConstructor(componentTypes);
+            canonical.setAccessible(true);
+            this.constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                    .asSpreader(Object[].class, components.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalArgumentException("Could not access canonical constructor of " + recordClass.getName(), e);
+        }
+    }
+
+    public Class<R> recordClass() {
+        return recordClass;
+    }
+
+    /**
+     * @return Number of Table columns a row of this Record spans
+     */
+    public int columnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Maps the current row of a ResultSet whose columns are the Table columns in declaration order
+     * @param resultSet ResultSet positioned on a row
+     * @param offset Number of columns selected before the first column of this Table, 0 if it is selected first
+     * @return The populated Record
+     */
+    public R map(ResultSet resultSet, int offset) throws SQLException {
+        Object[] arguments = new Object[argumentCount];
+        for (int i = 0; i < argumentCount; i++) {
+            DatabaseProperty property = properties[i];
+            if (property == null) continue;
+            arguments[i] = property.getType().indexConverter.apply(resultSet, offset + positions[i] + 1);
+        }
+        return construct(arguments);
+    }
+
+    /**
+     * Maps the current row of the ResultSet by column label
+     * @param resultSet ResultSet positioned on a row
+     * @param bindingResult If columns are labeled with their table name, as in Binding queries
+     * @return The populated Record
+     */
+    public R map(ResultSet resultSet, boolean bindingResult) throws SQLException {
+        String[] columnLabels = bindingResult ? qualifiedLabels : labels;
+        Object[] arguments = new Object[argumentCount];
+        for (int i = 0; i < argumentCount; i++) {
+            DatabaseProperty property = properties[i];
+            if (property == null) continue;
+            try {
+                arguments[i] = property.getType().resultSetConverter.apply(resultSet, columnLabels[i]);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                throw new RuntimeException("Failed to read column: " + columnLabels[i]);
+            }
+        }
+        return construct(arguments);
+    }
+
+    /**
+     * Invokes the canonical constructor
+     * @param arguments Values in component order
+     */
+    @SuppressWarnings("unchecked")
+    public R construct(Object[] arguments) {
+        try {
+            return (R) (Object) constructor.invokeExact(arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to construct " + recordClass.getName(), e);
+        }
+    }
+}
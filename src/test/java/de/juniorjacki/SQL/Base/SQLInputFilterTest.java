@@ -0,0 +1,40 @@
+package de.juniorjacki.SQL.Base;
+
+import de.juniorjacki.SQL.Structure.DataTable.ExampleTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SQLInputFilterTest {
+
+    private record Row(UUID id, String name, int count) {}
+
+    @Test
+    void filtersStringComponentsOfRecord() throws Exception {
+        UUID id = UUID.randomUUID();
+        Row filtered = SQLInputFilter.filterExternalInput(new Row(id, "name; drop table rows", 3));
+        assertEquals(new Row(id, "name; table rows", 3), filtered);
+    }
+
+    @Test
+    void returnsUnchangedRecordItself() throws Exception {
+        Row row = new Row(UUID.randomUUID(), "name", 3);
+        assertSame(row, SQLInputFilter.filterExternalInput(row));
+    }
+
+    @Test
+    void keepsNullStringComponents() throws Exception {
+        Row row = new Row(null, null, 0);
+        assertSame(row, SQLInputFilter.filterExternalInput(row));
+    }
+
+    @Test
+    void filtersBoundTableRecord() throws Exception {
+        UUID id = UUID.randomUUID();
+        ExampleTable.Example example = new ExampleTable.Example(id, "Max union all", "Mustermann", "max@example.com", 42);
+        assertEquals(new ExampleTable.Example(id, "Max all", "Mustermann", "max@example.com", 42), SQLInputFilter.filterBoundInput(example));
+    }
+}